@@ -3,6 +3,8 @@ import client.ServerFacade;
 import model.AuthData;
 import model.GameData;
 import model.UserData;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ServerMessage;
 
 import java.net.URI;
 import java.util.*;
@@ -24,6 +26,8 @@ public class ChessClient {
     // New fields for WebSocket usage
     private GameWebSocketClient gameSocket;
     private int currentGameId = -1;
+    // The game as of the last LOAD_GAME plus any MOVE deltas since
+    private volatile GameData liveGame;
 
     public void start() {
         System.out.println("Welcome to Chess Client! Type 'help' for commands.");
@@ -354,86 +358,70 @@ public class ChessClient {
     private void connectToGameWebSocket(int gameId) {
         try {
             currentGameId = gameId;
-            // Change endpoint URI from "/gameplay" to "/ws"
-            URI endpointURI = new URI("ws://localhost:8080/ws");
+            // Ask for MOVE deltas in binary frames so each move costs a few bytes instead of a whole board
+            URI endpointURI = new URI("ws://localhost:8080/ws?updates=delta&protocol=binary");
+            liveGame = null;
             gameSocket = new GameWebSocketClient(endpointURI);
-            gameSocket.addMessageHandler(message -> {
-                // Process server messages (e.g., update board state or display notifications)
-                System.out.println("WebSocket message received: " + message);
-
-                // Optionally auto-refresh the board after a move
-                // so we see other players' moves in real time
-                try {
-                    GameData updatedGame = facade.getGame(authToken, currentGameId);
-                    boolean isWhitePerspective =
-                            "WHITE".equalsIgnoreCase(currentPlayerColor)
-                                    || "OBSERVER".equalsIgnoreCase(currentPlayerColor);
-                    drawUnicodeChessBoard(updatedGame, isWhitePerspective);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            });
+            gameSocket.addMessageHandler(this::handleServerMessage);
             // Send an initial CONNECT command.
-            String connectMsg = String.format(
-                    "{\"commandType\": \"CONNECT\", \"authToken\": \"%s\", \"gameID\": %d}",
-                    authToken, gameId
-            );
-            gameSocket.sendMessage(connectMsg);
+            gameSocket.sendCommand(new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameId));
             System.out.println("WebSocket CONNECT message sent.");
         } catch (Exception e) {
             System.err.println("WebSocket connection error: " + e.getMessage());
         }
     }
 
-    private void sendMove(String startSquare, String endSquare, String promotion) {
-        ChessPosition startPosition = convertSquareToPosition(startSquare);
-        ChessPosition endPosition = convertSquareToPosition(endSquare);
-
-        String moveMsg = String.format(
-                "{" +
-                        "\"commandType\": \"MAKE_MOVE\", " +
-                        "\"authToken\": \"%s\", " +
-                        "\"gameID\": %d, " +
-                        "\"move\": {" +
-                        "\"startPosition\": {\"row\": %d, \"column\": %d}, " +
-                        "\"endPosition\": {\"row\": %d, \"column\": %d}, " +
-                        "\"promotionPiece\": %s" +
-                        "}" +
-                        "}",
-                authToken, currentGameId,
-                startPosition.getRow(), startPosition.getColumn(),
-                endPosition.getRow(), endPosition.getColumn(),
-                (promotion != null && !promotion.isEmpty()) ? "\"" + promotion + "\"" : "null"
-        );
-
-        System.out.println("Sending move JSON: " + moveMsg);
-        gameSocket.sendMessage(moveMsg);
+    /**
+     * Keeps liveGame in step with the server: LOAD_GAME replaces it, MOVE is
+     * replayed on it, and a MOVE that does not apply cleanly asks for a resync.
+     */
+    private void handleServerMessage(ServerMessage message) {
+        switch (message.getServerMessageType()) {
+            case LOAD_GAME -> {
+                liveGame = message.getGame();
+                drawLiveGame();
+            }
+            case MOVE -> {
+                if (liveGame != null && message.applyTo(liveGame.getChessGame())) {
+                    drawLiveGame();
+                } else {
+                    System.out.println("Board out of sync, reloading...");
+                    gameSocket.sendCommand(
+                            new UserGameCommand(UserGameCommand.CommandType.RESYNC, authToken, currentGameId));
+                }
+            }
+            case NOTIFICATION -> System.out.println(message.getMessage());
+            case ERROR -> System.out.println(message.getErrorMessage());
+        }
+    }
+
+    private void drawLiveGame() {
+        if (liveGame == null || liveGame.getChessGame() == null) {
+            return;
+        }
+        boolean isWhitePerspective = "WHITE".equalsIgnoreCase(currentPlayerColor)
+                || "OBSERVER".equalsIgnoreCase(currentPlayerColor);
+        drawUnicodeChessBoard(liveGame, isWhitePerspective);
     }
 
-    private ChessPosition convertSquareToPosition(String square) {
-        // e.g. "e2" -> (row=2, col=5) if your server indexing uses 1-based row/col
-        char file = square.charAt(0);              // 'e'
-        int rank = Character.getNumericValue(square.charAt(1)); // 2
-        int column = file - 'a' + 1;               // e -> 5
-        // If your server uses (row=1 at bottom = White side) then you might do  rank=2
-        // and row=8-rank+1 if needed. We'll assume row=rank directly if that's how your code works.
-        return new ChessPosition(rank, column);
+    private void sendMove(String startSquare, String endSquare, String promotion) {
+        ChessMove move = ChessMove.fromNotation(startSquare + endSquare
+                + (promotion == null ? "" : promotion.toLowerCase()));
+        if (move == null) {
+            System.out.println("Invalid move. Use squares like e2 e4 and q, r, b or n for a promotion.");
+            return;
+        }
+
+        System.out.println("Sending move: " + move.toNotation());
+        gameSocket.sendCommand(new UserGameCommand(UserGameCommand.CommandType.MAKE_MOVE, authToken, currentGameId, move));
     }
 
     private void sendResign() {
-        String resignMsg = String.format(
-                "{\"commandType\": \"RESIGN\", \"authToken\": \"%s\", \"gameID\": %d, \"playerColor\": \"%s\"}",
-                authToken, currentGameId, currentPlayerColor
-        );
-        gameSocket.sendMessage(resignMsg);
+        gameSocket.sendCommand(new UserGameCommand(UserGameCommand.CommandType.RESIGN, authToken, currentGameId));
     }
 
     private void sendLeave() {
-        String leaveMsg = String.format(
-                "{\"commandType\": \"LEAVE\", \"authToken\": \"%s\", \"gameID\": %d, \"playerColor\": \"%s\"}",
-                authToken, currentGameId, currentPlayerColor
-        );
-        gameSocket.sendMessage(leaveMsg);
+        gameSocket.sendCommand(new UserGameCommand(UserGameCommand.CommandType.LEAVE, authToken, currentGameId));
     }
 
     // --- Updated In-Game Prompt ---
@@ -1,4 +1,5 @@
 import java.net.URI;
+import java.nio.ByteBuffer;
 import javax.websocket.ClientEndpoint;
 import javax.websocket.CloseReason;
 import javax.websocket.ContainerProvider;
@@ -8,13 +9,23 @@ import javax.websocket.OnOpen;
 import javax.websocket.Session;
 import javax.websocket.WebSocketContainer;
 
+import com.google.gson.Gson;
+import websocket.BinaryCodec;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ServerMessage;
+
 @ClientEndpoint
 public class GameWebSocketClient {
 
+    private final Gson gson = new Gson();
+    // Connected with ?protocol=binary: commands go out as BinaryCodec frames
+    private final boolean binary;
     private Session session;
     private MessageHandler messageHandler;
 
     public GameWebSocketClient(URI endpointURI) {
+        String query = endpointURI.getQuery();
+        this.binary = query != null && query.contains("protocol=binary");
         try {
             WebSocketContainer container = ContainerProvider.getWebSocketContainer();
             // Connect to the server endpoint. This method blocks until connected.
@@ -32,8 +43,20 @@ public class GameWebSocketClient {
 
     @OnMessage
     public void onMessage(String message) {
-        System.out.println("Received message from server: " + message);
-        if (this.messageHandler != null) {
+        deliver(gson.fromJson(message, ServerMessage.class));
+    }
+
+    @OnMessage
+    public void onMessage(ByteBuffer frame) {
+        try {
+            deliver(BinaryCodec.decodeMessage(frame));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Dropped malformed frame from server: " + e.getMessage());
+        }
+    }
+
+    private void deliver(ServerMessage message) {
+        if (this.messageHandler != null && message != null) {
             this.messageHandler.handleMessage(message);
         }
     }
@@ -45,11 +68,15 @@ public class GameWebSocketClient {
     }
 
     /**
-     * Send a message through the open WebSocket connection.
+     * Send a command in whichever format this connection negotiated.
      */
-    public void sendMessage(String message) {
+    public void sendCommand(UserGameCommand command) {
         if (session != null && session.isOpen()) {
-            session.getAsyncRemote().sendText(message);
+            if (binary) {
+                session.getAsyncRemote().sendBinary(ByteBuffer.wrap(BinaryCodec.encode(command)));
+            } else {
+                session.getAsyncRemote().sendText(gson.toJson(command));
+            }
         } else {
             System.err.println("Cannot send message; WebSocket session is closed.");
         }
@@ -66,6 +93,6 @@ public class GameWebSocketClient {
      * Interface to handle messages received from the server.
      */
     public static interface MessageHandler {
-        void handleMessage(String message);
+        void handleMessage(ServerMessage message);
     }
-}
\ No newline at end of file
+}
@@ -10,11 +10,17 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ServerFacade {
 
     private final String baseUrl;
     private final Gson gson = new Gson();
+    // Last copy of each game fetched, keyed by gameID, with the ETag it came with
+    private final Map<Integer, CachedGame> gameCache = new ConcurrentHashMap<>();
+
+    private record CachedGame(String etag, GameData game) {}
 
     public ServerFacade(int port) {
         this.baseUrl = "http://localhost:" + port;
@@ -127,13 +133,30 @@ public class ServerFacade {
     // List games
     private static class GamesWrapper {
         List<GameData> games;
+        Integer nextCursor;
     }
 
+    // Listings carry no boards; follows nextCursor through every page
     public List<GameData> listGames(String authToken) throws Exception {
         if (authToken == null) {
             throw new Exception("listGames: No authToken provided");
         }
-        URL url = new URL(baseUrl + "/game");
+        List<GameData> games = new ArrayList<>();
+        Integer cursor = null;
+        do {
+            GamesWrapper w = listGamesPage(authToken, cursor);
+            if (w == null || w.games == null) {
+                break;
+            }
+            games.addAll(w.games);
+            cursor = w.nextCursor;
+        } while (cursor != null);
+        return games;
+    }
+
+    private GamesWrapper listGamesPage(String authToken, Integer after) throws Exception {
+        String query = "?limit=100" + (after != null ? "&after=" + after : "");
+        URL url = new URL(baseUrl + "/game" + query);
         HttpURLConnection conn = (HttpURLConnection) url.openConnection();
         conn.setRequestMethod("GET");
         conn.setRequestProperty("Authorization", authToken);
@@ -142,8 +165,7 @@ public class ServerFacade {
         if (status == 200) {
             String resp = new String(conn.getInputStream().readAllBytes(), "UTF-8");
             conn.disconnect();
-            GamesWrapper w = gson.fromJson(resp, GamesWrapper.class);
-            return (w != null && w.games != null) ? w.games : new ArrayList<>();
+            return gson.fromJson(resp, GamesWrapper.class);
         } else {
             String errMsg = readError(conn);
             conn.disconnect();
@@ -186,16 +208,40 @@ public class ServerFacade {
         }
     }
 
-    // getGame: Since there is no dedicated endpoint for a single game,
-    // we list all games and return the one matching gameID.
+    // getGame: fetches one game, revalidating the cached copy with If-None-Match
+    // so an unchanged game comes back as an empty 304.
     public GameData getGame(String authToken, int gameID) throws Exception {
-        List<GameData> games = listGames(authToken);
-        for (GameData g : games) {
-            if (g.getGameID() == gameID) {
-                return g;
+        if (authToken == null) {
+            throw new Exception("getGame: No authToken provided");
+        }
+        URL url = new URL(baseUrl + "/game/" + gameID);
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setRequestMethod("GET");
+        conn.setRequestProperty("Authorization", authToken);
+        CachedGame cached = gameCache.get(gameID);
+        if (cached != null) {
+            conn.setRequestProperty("If-None-Match", cached.etag());
+        }
+
+        int status = conn.getResponseCode();
+        if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+            conn.disconnect();
+            return cached.game();
+        } else if (status == 200) {
+            String resp = new String(conn.getInputStream().readAllBytes(), "UTF-8");
+            String etag = conn.getHeaderField("ETag");
+            conn.disconnect();
+            GameData game = gson.fromJson(resp, GameData.class);
+            if (etag != null) {
+                gameCache.put(gameID, new CachedGame(etag, game));
             }
+            return game;
+        } else {
+            String errMsg = readError(conn);
+            conn.disconnect();
+            gameCache.remove(gameID);
+            throw new Exception("Game not found for ID: " + gameID + " (" + errMsg + ")");
         }
-        throw new Exception("Game not found for ID: " + gameID);
     }
 
     // New Method: makeMove
@@ -2,9 +2,28 @@ package dataaccess;
 
 import model.AuthData;
 
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
 public interface AuthDAO {
     void createAuth(AuthData auth) throws DataAccessException;
     AuthData getAuth(String authToken) throws DataAccessException;
     void deleteAuth(String authToken) throws DataAccessException;
     void clear();
-}
\ No newline at end of file
+
+    /**
+     * getAuth() without blocking the caller, so it can overlap other lookups.
+     * By default the lookup runs on the calling thread.
+     */
+    default CompletableFuture<AuthData> getAuthAsync(String authToken) {
+        return DataAccessFutures.completed(() -> getAuth(authToken));
+    }
+
+    /**
+     * Mints a token for username, to be passed to createAuth. Stores that look
+     * tokens up use a random UUID; self-describing token formats override this.
+     */
+    default String newToken(String username) throws DataAccessException {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,210 @@
+package dataaccess;
+
+import model.AuthData;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches token lookups in front of another AuthDAO, so the auth check on every
+ * request and WebSocket command is a map lookup instead of a database round trip.
+ * <p>
+ * Valid tokens are kept for ttlMs and unknown ones for negativeTtlMs, so a client
+ * retrying a bad token does not hit the database either. deleteAuth() and clear()
+ * drop entries immediately, and a lookup that raced with one of them is not
+ * cached. At most maxEntries tokens are kept; expired entries go first.
+ */
+public class CachingAuthDAO implements AuthDAO {
+
+    private final AuthDAO delegate;
+    private final long ttlMs;
+    private final long negativeTtlMs;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Entry> cache = new ConcurrentHashMap<>();
+    // Bumped by every invalidation; a lookup only caches its result if this did not move meanwhile
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * A cached lookup: the token's AuthData, or the "not found" outcome of the delegate.
+     */
+    private record Entry(AuthData auth, String notFoundMessage, long expiresAt) {
+    }
+
+    public CachingAuthDAO(AuthDAO delegate, long ttlMs, long negativeTtlMs, int maxEntries) {
+        this.delegate = delegate;
+        this.ttlMs = ttlMs;
+        this.negativeTtlMs = negativeTtlMs;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public String newToken(String username) throws DataAccessException {
+        return delegate.newToken(username);
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        delegate.createAuth(auth);
+        put(auth.authToken(), new Entry(auth, null, System.currentTimeMillis() + ttlMs));
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        if (authToken == null) {
+            return delegate.getAuth(null);
+        }
+        Entry entry = fresh(authToken);
+        if (entry != null) {
+            return answer(entry);
+        }
+
+        misses.increment();
+        long before = invalidations.get();
+        AuthData auth;
+        try {
+            auth = delegate.getAuth(authToken);
+        } catch (DataAccessException e) {
+            remember(before, authToken, null, e);
+            throw e;
+        }
+        remember(before, authToken, auth, null);
+        return auth;
+    }
+
+    /**
+     * Answers hits on the spot and misses through the delegate's async lookup.
+     */
+    @Override
+    public CompletableFuture<AuthData> getAuthAsync(String authToken) {
+        if (authToken == null) {
+            return delegate.getAuthAsync(null);
+        }
+        Entry entry = fresh(authToken);
+        if (entry != null) {
+            return DataAccessFutures.completed(() -> answer(entry));
+        }
+
+        misses.increment();
+        long before = invalidations.get();
+        return delegate.getAuthAsync(authToken)
+                .whenComplete((auth, error) -> remember(before, authToken, auth, DataAccessFutures.unwrap(error)));
+    }
+
+    private Entry fresh(String authToken) {
+        Entry entry = cache.get(authToken);
+        return (entry != null && entry.expiresAt() > System.currentTimeMillis()) ? entry : null;
+    }
+
+    private AuthData answer(Entry entry) throws DataAccessException {
+        if (entry.auth() != null) {
+            hits.increment();
+            return entry.auth();
+        }
+        negativeHits.increment();
+        if (entry.notFoundMessage() != null) {
+            throw new DataAccessException(entry.notFoundMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Caches the outcome of a delegate lookup, or of a failed one when it means "not found".
+     */
+    private void remember(long before, String authToken, AuthData auth, Throwable error) {
+        if (error != null) {
+            // Some stores report an unknown token by throwing; anything else is not cacheable
+            String message = error.getMessage();
+            if (error instanceof DataAccessException && message != null
+                    && message.toLowerCase().contains("not found")) {
+                cacheIfUnchanged(before, authToken, new Entry(null, message,
+                        System.currentTimeMillis() + negativeTtlMs));
+            }
+            return;
+        }
+        long ttl = (auth != null) ? ttlMs : negativeTtlMs;
+        cacheIfUnchanged(before, authToken, new Entry(auth, null, System.currentTimeMillis() + ttl));
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        invalidate(authToken);
+        try {
+            delegate.deleteAuth(authToken);
+        } finally {
+            invalidate(authToken);
+        }
+    }
+
+    @Override
+    public void clear() {
+        invalidations.incrementAndGet();
+        cache.clear();
+        delegate.clear();
+        invalidations.incrementAndGet();
+        cache.clear();
+    }
+
+    public int getSize() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getNegativeHitCount() {
+        return negativeHits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CachingAuthDAO[size=%d, hits=%d, negativeHits=%d, misses=%d]",
+                getSize(), getHitCount(), getNegativeHitCount(), getMissCount());
+    }
+
+    private void invalidate(String authToken) {
+        invalidations.incrementAndGet();
+        if (authToken != null) {
+            cache.remove(authToken);
+        }
+    }
+
+    private void cacheIfUnchanged(long before, String authToken, Entry entry) {
+        if (invalidations.get() == before) {
+            put(authToken, entry);
+            // An invalidation that slipped in between the check and the put wins
+            if (invalidations.get() != before) {
+                cache.remove(authToken, entry);
+            }
+        }
+    }
+
+    private void put(String authToken, Entry entry) {
+        if (cache.size() >= maxEntries && !cache.containsKey(authToken)) {
+            makeRoom();
+        }
+        cache.put(authToken, entry);
+    }
+
+    private void makeRoom() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(e -> e.expiresAt() <= now);
+        // Still full of live tokens: shed an arbitrary tenth rather than growing without bound
+        Iterator<String> it = cache.keySet().iterator();
+        for (int excess = cache.size() - maxEntries + Math.max(1, maxEntries / 10); excess > 0 && it.hasNext(); excess--) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A small JDBC connection pool in the spirit of HikariCP.
+ * <p>
+ * Borrowed connections are proxies whose close() hands the physical connection
+ * back to the pool, so DAOs keep using try-with-resources unchanged.
+ * Idle connections are validated before reuse, retired after maxLifetime, and a
+ * housekeeping thread keeps minSize connections warm and reports leaks.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Opens a new physical connection.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection connect() throws SQLException;
+    }
+
+    /**
+     * Pool settings, read from the db.pool.* keys of db.properties.
+     */
+    public record Config(int minSize,
+                         int maxSize,
+                         long connectionTimeoutMs,
+                         int validationTimeoutSeconds,
+                         long idleValidationMs,
+                         long maxLifetimeMs,
+                         long leakDetectionThresholdMs) {
+
+        public static Config fromProperties(Properties props) {
+            return new Config(
+                    Integer.parseInt(props.getProperty("db.pool.minSize", "2")),
+                    Integer.parseInt(props.getProperty("db.pool.maxSize", "10")),
+                    Long.parseLong(props.getProperty("db.pool.connectionTimeoutMs", "30000")),
+                    Integer.parseInt(props.getProperty("db.pool.validationTimeoutSeconds", "5")),
+                    Long.parseLong(props.getProperty("db.pool.idleValidationMs", "500")),
+                    Long.parseLong(props.getProperty("db.pool.maxLifetimeMs", "1800000")),
+                    Long.parseLong(props.getProperty("db.pool.leakDetectionThresholdMs", "0"))
+            );
+        }
+    }
+
+    private final Config config;
+    private final ConnectionFactory factory;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // Metrics
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder retired = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+
+    public ConnectionPool(Config config, ConnectionFactory factory) {
+        if (config.minSize() < 0 || config.maxSize() < 1 || config.minSize() > config.maxSize()) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + config.minSize() + ", max=" + config.maxSize());
+        }
+        this.config = config;
+        this.factory = factory;
+        this.permits = new Semaphore(config.maxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, 5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to connectionTimeoutMs for one to free up.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(config.connectionTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLException("Timed out after " + config.connectionTimeoutMs()
+                        + "ms waiting for a database connection (active=" + getActiveConnections() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection");
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isExpired(pooled) || !isAlive(pooled)) {
+                    retire(pooled);
+                    continue;
+                }
+                return lease(pooled);
+            }
+            return lease(openConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection openConnection() throws SQLException {
+        Connection physical = factory.connect();
+        totalConnections.incrementAndGet();
+        created.increment();
+        return new PooledConnection(physical);
+    }
+
+    private Connection lease(PooledConnection pooled) {
+        pooled.borrowedAt = System.nanoTime();
+        pooled.leakReported = false;
+        pooled.borrowSite = (config.leakDetectionThresholdMs() > 0)
+                ? new Exception("Connection borrowed here") : null;
+        borrowed.add(pooled);
+        borrows.increment();
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new Lease(pooled));
+    }
+
+    private void giveBack(PooledConnection pooled) {
+        borrowed.remove(pooled);
+        try {
+            if (closed || pooled.physical.isClosed() || isExpired(pooled)) {
+                retire(pooled);
+            } else {
+                if (!pooled.physical.getAutoCommit()) {
+                    pooled.physical.rollback();
+                    pooled.physical.setAutoCommit(true);
+                }
+                pooled.lastUsed = System.nanoTime();
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            retire(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean isExpired(PooledConnection pooled) {
+        return config.maxLifetimeMs() > 0
+                && System.nanoTime() - pooled.createdAt > TimeUnit.MILLISECONDS.toNanos(config.maxLifetimeMs());
+    }
+
+    /**
+     * Connections that sat idle for a while are pinged before being handed out.
+     */
+    private boolean isAlive(PooledConnection pooled) {
+        if (System.nanoTime() - pooled.lastUsed < TimeUnit.MILLISECONDS.toNanos(config.idleValidationMs())) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(config.validationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void retire(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        retired.increment();
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignored) {
+            // already broken
+        }
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private void housekeep() {
+        try {
+            // Retire idle connections past their lifetime
+            for (PooledConnection pooled : idle) {
+                if (isExpired(pooled) && idle.remove(pooled)) {
+                    retire(pooled);
+                }
+            }
+            // Keep minSize connections warm; creating under a permit keeps total <= maxSize
+            while (!closed && totalConnections.get() < config.minSize() && permits.tryAcquire()) {
+                try {
+                    idle.offerLast(openConnection());
+                } finally {
+                    permits.release();
+                }
+            }
+            reportLeaks();
+        } catch (Exception e) {
+            System.out.println("Connection pool housekeeping failed: " + e.getMessage());
+        }
+    }
+
+    private void reportLeaks() {
+        if (config.leakDetectionThresholdMs() <= 0) {
+            return;
+        }
+        long threshold = TimeUnit.MILLISECONDS.toNanos(config.leakDetectionThresholdMs());
+        long now = System.nanoTime();
+        for (PooledConnection pooled : borrowed) {
+            if (!pooled.leakReported && now - pooled.borrowedAt > threshold) {
+                pooled.leakReported = true;
+                leaks.increment();
+                System.out.println("Possible connection leak: held for "
+                        + TimeUnit.NANOSECONDS.toMillis(now - pooled.borrowedAt) + "ms");
+                if (pooled.borrowSite != null) {
+                    pooled.borrowSite.printStackTrace(System.out);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            retire(pooled);
+        }
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public int getActiveConnections() {
+        return borrowed.size();
+    }
+
+    public int getThreadsAwaitingConnection() {
+        return permits.getQueueLength();
+    }
+
+    public long getBorrowCount() {
+        return borrows.sum();
+    }
+
+    public double getAverageWaitMillis() {
+        long count = borrows.sum() + timeouts.sum();
+        return (count == 0) ? 0 : totalWaitNanos.sum() / 1_000_000.0 / count;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    public long getCreatedCount() {
+        return created.sum();
+    }
+
+    public long getRetiredCount() {
+        return retired.sum();
+    }
+
+    public long getLeakCount() {
+        return leaks.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConnectionPool{total=%d, active=%d, idle=%d, waiting=%d, borrows=%d, "
+                        + "avgWaitMs=%.3f, maxWaitMs=%.3f, timeouts=%d, leaks=%d}",
+                getTotalConnections(), getActiveConnections(), getIdleConnections(),
+                getThreadsAwaitingConnection(), getBorrowCount(), getAverageWaitMillis(),
+                getMaxWaitMillis(), getTimeoutCount(), getLeakCount());
+    }
+
+    private static class PooledConnection {
+        private final Connection physical;
+        private final long createdAt = System.nanoTime();
+        private volatile long lastUsed = createdAt;
+        private volatile long borrowedAt;
+        private volatile boolean leakReported;
+        private volatile Exception borrowSite;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+    }
+
+    /**
+     * Handler behind the Connection proxy given to callers; valid until close().
+     */
+    private class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final AtomicBoolean returned = new AtomicBoolean();
+
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (returned.compareAndSet(false, true)) {
+                        giveBack(pooled);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned.get() || pooled.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled(" + pooled.physical + ")";
+                }
+                default -> {
+                    if (returned.get()) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                }
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package dataaccess;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Helpers for the async DAO methods, whose futures fail with the same
+ * DataAccessException the blocking call would have thrown.
+ */
+public final class DataAccessFutures {
+
+    /**
+     * A blocking DAO call.
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+        T call() throws DataAccessException;
+    }
+
+    private DataAccessFutures() {
+    }
+
+    /**
+     * Runs call on the calling thread and returns its outcome as an already completed future.
+     */
+    public static <T> CompletableFuture<T> completed(Call<T> call) {
+        try {
+            return CompletableFuture.completedFuture(call.call());
+        } catch (DataAccessException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Waits for a DAO future, rethrowing its DataAccessException as is.
+     */
+    public static <T> T join(CompletableFuture<T> future) throws DataAccessException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof DataAccessException dae) {
+                throw dae;
+            }
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new DataAccessException("Error: " + cause.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Error: interrupted waiting for the database");
+        }
+    }
+
+    /**
+     * The exception behind a future's ExecutionException or CompletionException.
+     */
+    public static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
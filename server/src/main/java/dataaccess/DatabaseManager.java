@@ -5,16 +5,34 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Manages database creation & connections.
  * Make sure you call initDB() once when your server starts up.
+ * <p>
+ * Connections come from a {@link ConnectionPool} configured by the optional
+ * db.pool.* keys in db.properties (minSize, maxSize, connectionTimeoutMs,
+ * validationTimeoutSeconds, idleValidationMs, maxLifetimeMs, leakDetectionThresholdMs).
+ * Each pooled connection caches its server-side prepared statements, tuned by
+ * db.cachePrepStmts, db.useServerPrepStmts, db.prepStmtCacheSize and db.prepStmtCacheSqlLimit.
+ * Any db.* key can be overridden with a JVM system property of the same name.
+ * <p>
+ * Async DAO calls run on a dedicated executor with one thread per pooled
+ * connection, so callers never block on JDBC themselves.
  */
 public class DatabaseManager {
     private static final String DATABASE_NAME;
     private static final String USER;
     private static final String PASSWORD;
     private static final String CONNECTION_URL;
+    private static final ConnectionPool.Config POOL_CONFIG;
+    private static final Properties CONNECTION_PROPERTIES = new Properties();
+    private static volatile ConnectionPool pool;
+    private static volatile ExecutorService executor;
 
     static {
         try {
@@ -25,6 +43,11 @@ public class DatabaseManager {
                 }
                 Properties props = new Properties();
                 props.load(propStream);
+                for (String key : System.getProperties().stringPropertyNames()) {
+                    if (key.startsWith("db.")) {
+                        props.setProperty(key, System.getProperty(key));
+                    }
+                }
 
                 DATABASE_NAME = props.getProperty("db.name");
                 USER = props.getProperty("db.user");
@@ -33,6 +56,18 @@ public class DatabaseManager {
                 var host = props.getProperty("db.host");
                 var port = Integer.parseInt(props.getProperty("db.port"));
                 CONNECTION_URL = String.format("jdbc:mysql://%s:%d", host, port);
+                POOL_CONFIG = ConnectionPool.Config.fromProperties(props);
+
+                // Pooled connections live long enough for per-connection statement caches to pay off:
+                // each hot query is parsed by the server once per connection instead of once per call.
+                CONNECTION_PROPERTIES.setProperty("user", USER);
+                if (PASSWORD != null) {
+                    CONNECTION_PROPERTIES.setProperty("password", PASSWORD);
+                }
+                CONNECTION_PROPERTIES.setProperty("cachePrepStmts", props.getProperty("db.cachePrepStmts", "true"));
+                CONNECTION_PROPERTIES.setProperty("useServerPrepStmts", props.getProperty("db.useServerPrepStmts", "true"));
+                CONNECTION_PROPERTIES.setProperty("prepStmtCacheSize", props.getProperty("db.prepStmtCacheSize", "250"));
+                CONNECTION_PROPERTIES.setProperty("prepStmtCacheSqlLimit", props.getProperty("db.prepStmtCacheSqlLimit", "2048"));
             }
         } catch (Exception ex) {
             throw new RuntimeException("Unable to process db.properties. " + ex.getMessage());
@@ -56,18 +91,78 @@ public class DatabaseManager {
     }
 
     /**
-     * Obtain a connection to the database, setting the catalog.
+     * Borrow a pooled connection to the database. Closing it returns it to the pool.
      */
     static Connection getConnection() throws DataAccessException {
         try {
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
-            conn.setCatalog(DATABASE_NAME);
-            return conn;
+            return getPool().getConnection();
         } catch (SQLException e) {
             throw new DataAccessException(e.getMessage());
         }
     }
 
+    /**
+     * Runs a blocking DAO call on the database executor.
+     */
+    static <T> CompletableFuture<T> supplyAsync(DataAccessFutures.Call<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        getExecutor().execute(() -> {
+            try {
+                future.complete(call.call());
+            } catch (DataAccessException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private static ExecutorService getExecutor() {
+        ExecutorService current = executor;
+        if (current == null) {
+            synchronized (DatabaseManager.class) {
+                current = executor;
+                if (current == null) {
+                    // More threads than connections would only queue inside the pool instead of here
+                    AtomicInteger count = new AtomicInteger();
+                    current = Executors.newFixedThreadPool(POOL_CONFIG.maxSize(), r -> {
+                        Thread t = new Thread(r, "db-io-" + count.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+                    executor = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * The pool is created on first use, after createDatabase() has had a chance to run.
+     */
+    public static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseManager.class) {
+                current = pool;
+                if (current == null) {
+                    current = new ConnectionPool(POOL_CONFIG, DatabaseManager::openConnection);
+                    Runtime.getRuntime().addShutdownHook(new Thread(current::close, "db-pool-shutdown"));
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Opens a physical connection with the catalog set; only the pool calls this.
+     */
+    private static Connection openConnection() throws SQLException {
+        var conn = DriverManager.getConnection(CONNECTION_URL, CONNECTION_PROPERTIES);
+        conn.setCatalog(DATABASE_NAME);
+        return conn;
+    }
+
     /**
      * Initializes the DB & tables if they don't exist,
      * and tries to add a UNIQUE constraint for gameName
@@ -75,6 +170,7 @@ public class DatabaseManager {
      */
     public static void initDB() throws DataAccessException {
         createDatabase();
+        boolean gameOverAdded = false;
 
         try (Connection conn = getConnection()) {
             String createUsers = """
@@ -94,13 +190,70 @@ public class DatabaseManager {
                   whiteUsername VARCHAR(50),
                   blackUsername VARCHAR(50),
                   gameName VARCHAR(100) NOT NULL,
-                  gameJSON TEXT
+                  gameJSON TEXT,
+                  snapshotPly INT NOT NULL DEFAULT 0,
+                  gameOver BOOLEAN NOT NULL DEFAULT FALSE,
+                  version INT NOT NULL DEFAULT 0
                 );
             """;
             try (PreparedStatement stmt = conn.prepareStatement(createGames)) {
                 stmt.executeUpdate();
             }
 
+            try (PreparedStatement alterStmt = conn.prepareStatement(
+                    "ALTER TABLE Games ADD COLUMN snapshotPly INT NOT NULL DEFAULT 0"
+            )) {
+                alterStmt.executeUpdate();
+            } catch (SQLException e) {
+                System.out.println("Note: Could not add snapshotPly to Games (possibly already exists). " + e.getMessage());
+            }
+
+            try (PreparedStatement alterStmt = conn.prepareStatement(
+                    "ALTER TABLE Games ADD COLUMN gameOver BOOLEAN NOT NULL DEFAULT FALSE"
+            )) {
+                alterStmt.executeUpdate();
+                gameOverAdded = true;
+            } catch (SQLException e) {
+                System.out.println("Note: Could not add gameOver to Games (possibly already exists). " + e.getMessage());
+            }
+
+            try (PreparedStatement alterStmt = conn.prepareStatement(
+                    "ALTER TABLE Games ADD COLUMN version INT NOT NULL DEFAULT 0"
+            )) {
+                alterStmt.executeUpdate();
+            } catch (SQLException e) {
+                System.out.println("Note: Could not add version to Games (possibly already exists). " + e.getMessage());
+            }
+
+            // Secondary indexes end in gameID so filtered game list pages stay keyset range scans
+            String[] gameIndexes = {
+                "CREATE INDEX idx_games_white ON Games (whiteUsername, gameID)",
+                "CREATE INDEX idx_games_black ON Games (blackUsername, gameID)",
+                "CREATE INDEX idx_games_over ON Games (gameOver, gameID)"
+            };
+            for (String createIndex : gameIndexes) {
+                try (PreparedStatement indexStmt = conn.prepareStatement(createIndex)) {
+                    indexStmt.executeUpdate();
+                } catch (SQLException e) {
+                    System.out.println("Note: Could not create index (possibly already exists). " + e.getMessage());
+                }
+            }
+
+            // Append-only move log; Games.gameJSON is a snapshot as of Games.snapshotPly
+            String createGameMoves = """
+                CREATE TABLE IF NOT EXISTS GameMoves (
+                  gameID INT NOT NULL,
+                  ply INT NOT NULL,
+                  move VARCHAR(5) NOT NULL,
+                  createdAt TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+                  PRIMARY KEY (gameID, ply),
+                  FOREIGN KEY (gameID) REFERENCES Games(gameID) ON DELETE CASCADE
+                );
+            """;
+            try (PreparedStatement stmt = conn.prepareStatement(createGameMoves)) {
+                stmt.executeUpdate();
+            }
+
             try (PreparedStatement alterStmt = conn.prepareStatement(
                     "ALTER TABLE Games ADD UNIQUE (gameName)"
             )) {
@@ -120,8 +273,36 @@ public class DatabaseManager {
                 stmt.executeUpdate();
             }
 
+            // Token expiry
+            String[] authAlters = {
+                "ALTER TABLE AuthTokens ADD COLUMN createdAt TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)",
+                "ALTER TABLE AuthTokens ADD COLUMN expiresAt TIMESTAMP(3) NULL",
+                "CREATE INDEX idx_auth_expires ON AuthTokens (expiresAt)"
+            };
+            for (String alter : authAlters) {
+                try (PreparedStatement alterStmt = conn.prepareStatement(alter)) {
+                    alterStmt.executeUpdate();
+                } catch (SQLException e) {
+                    System.out.println("Note: Could not alter AuthTokens (possibly already done). " + e.getMessage());
+                }
+            }
+
+            // Tokens from before expiry existed get one default TTL from now, so an unused one is swept
+            try (PreparedStatement backfillStmt = conn.prepareStatement(
+                    "UPDATE AuthTokens SET expiresAt = NOW(3) + INTERVAL ? MICROSECOND WHERE expiresAt IS NULL"
+            )) {
+                backfillStmt.setLong(1, MySQLAuthDAO.DEFAULT_TTL_MS * 1000);
+                backfillStmt.executeUpdate();
+            }
+
         } catch (SQLException e) {
             throw new DataAccessException("Error creating tables: " + e.getMessage());
         }
+
+        // Games stored before the column existed all read FALSE until backfilled once
+        if (gameOverAdded) {
+            int finished = new MySQLGameDAO().backfillGameOver();
+            System.out.println("Backfilled gameOver for " + finished + " finished games.");
+        }
     }
 }
\ No newline at end of file
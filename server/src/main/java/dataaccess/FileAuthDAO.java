@@ -0,0 +1,38 @@
+package dataaccess;
+
+import model.AuthData;
+
+/**
+ * Auth tokens in a {@link FileStore}.
+ */
+public class FileAuthDAO implements AuthDAO {
+    private final FileStore store;
+
+    public FileAuthDAO(FileStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        store.createAuth(auth);
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) {
+        return store.getAuth(authToken);
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        store.deleteAuth(authToken);
+    }
+
+    @Override
+    public void clear() {
+        try {
+            store.clearTokens();
+        } catch (DataAccessException e) {
+            System.out.println("Error clearing auth tokens: " + e.getMessage());
+        }
+    }
+}
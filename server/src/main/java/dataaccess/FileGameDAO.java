@@ -0,0 +1,109 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.GameData;
+import model.GameSummary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Games in a {@link FileStore}. Each move appends a single small record, and a
+ * batch of updates shares one commit.
+ */
+public class FileGameDAO implements GameDAO {
+    private final FileStore store;
+    private volatile String epoch = GameDAO.newEpoch();
+
+    public FileGameDAO(FileStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public int createGame(GameData game) throws DataAccessException {
+        return store.createGame(game);
+    }
+
+    @Override
+    public List<Integer> createGames(List<GameData> games) throws DataAccessException {
+        return store.createGames(games);
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        return store.getGame(gameID);
+    }
+
+    @Override
+    public List<GameData> listGames() throws DataAccessException {
+        return store.copyGames();
+    }
+
+    /**
+     * Filters the indexed games directly, copying nothing but the summaries.
+     */
+    @Override
+    public List<GameSummary> listGameSummaries(GameQuery query) {
+        List<GameData> matching = new ArrayList<>();
+        for (GameData game : store.games()) {
+            if (query.matches(game)) {
+                matching.add(game);
+            }
+        }
+        matching.sort(Comparator.comparingInt(GameData::getGameID));
+        List<GameSummary> page = new ArrayList<>(Math.min(matching.size(), query.limit()));
+        for (GameData game : matching.subList(0, Math.min(matching.size(), query.limit()))) {
+            page.add(GameSummary.of(game));
+        }
+        return page;
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        store.updateGames(List.of(game));
+    }
+
+    @Override
+    public void updateGames(Collection<GameData> games) throws DataAccessException {
+        store.updateGames(games);
+    }
+
+    @Override
+    public void recordMoves(GameData game, int firstPly, List<ChessMove> moves) throws DataAccessException {
+        store.recordMoves(game, firstPly, moves);
+    }
+
+    @Override
+    public void updateGameIfVersion(GameData game, int expectedVersion) throws DataAccessException {
+        store.writeGameIfVersion(game, expectedVersion, 0, null);
+    }
+
+    @Override
+    public void recordMovesIfVersion(GameData game, int expectedVersion, int firstPly, List<ChessMove> moves)
+            throws DataAccessException {
+        store.writeGameIfVersion(game, expectedVersion, firstPly, moves);
+    }
+
+    @Override
+    public void claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        store.claimSeat(gameID, color, username);
+    }
+
+    @Override
+    public void clear() {
+        epoch = GameDAO.newEpoch();
+        try {
+            store.clearGames();
+        } catch (DataAccessException e) {
+            System.out.println("Error clearing games: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String getEpoch() {
+        return epoch;
+    }
+}
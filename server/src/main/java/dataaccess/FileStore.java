@@ -0,0 +1,723 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import com.google.gson.Gson;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Embedded storage behind {@link FileGameDAO}, {@link FileUserDAO} and
+ * {@link FileAuthDAO}: an append-only log on disk with every live record indexed
+ * in memory, so reads never touch the disk.
+ * <p>
+ * Each change is applied to the index and queued as one JSON line. A writer then
+ * waits for its line to be durable: whichever writer gets the commit lock writes
+ * every queued line in one go and forces the file once (group commit), so
+ * concurrent writers share a single fsync. A move is logged as just the move, not
+ * the whole board. Readers may see a change a moment before its writer returns.
+ * <p>
+ * A compactor periodically rewrites the log as one record per live game, user and
+ * token once it holds mostly superseded records. The new generation is written to
+ * a temporary file, forced and renamed into place before the old one is deleted,
+ * so a crash at any point leaves one complete log. On startup the log is replayed;
+ * a torn last line from a crash mid-write is cut off, but a complete record that
+ * does not replay is corruption and fails startup rather than losing what follows.
+ */
+public class FileStore implements AutoCloseable {
+    private static final String PREFIX = "store-";
+    private static final String SUFFIX = ".log";
+    private static final int MIN_COMPACT_RECORDS = 1000;
+    private static final Gson GSON = new Gson();
+
+    private final Path dir;
+    private final boolean fsync;
+    private final ConcurrentHashMap<Integer, GameData> games = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, UserData> users = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AuthData> tokens = new ConcurrentHashMap<>();
+    private final AtomicInteger nextGameID = new AtomicInteger(1);
+
+    // Changes hit the index and the queue together under appendLock, so the log is in index
+    // order. Lock order is commitLock, then appendLock.
+    private final Object appendLock = new Object();
+    private final Object commitLock = new Object();
+    private List<byte[]> queued = new ArrayList<>();
+    private long appendedSeq;
+    private volatile long durableSeq;
+    private volatile IOException failure;
+
+    private FileChannel log;
+    private long generation;
+    private long recordsInLog;
+    private final ScheduledExecutorService compactor;
+
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder recordsWritten = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+
+    /**
+     * @param fsync force every commit to disk; without it a commit survives a process kill
+     *              but not a power cut
+     */
+    public FileStore(Path dir, boolean fsync, long compactIntervalMs) throws DataAccessException {
+        this.dir = dir;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(dir);
+            open();
+        } catch (IOException e) {
+            throw new DataAccessException("Error opening store in " + dir + ": " + e.getMessage());
+        }
+        this.compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "file-store-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        compactor.scheduleWithFixedDelay(this::compactIfWorthIt, compactIntervalMs, compactIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    int createGame(GameData game) throws DataAccessException {
+        GameData stored = copy(game);
+        int gameID;
+        long seq;
+        // IDs are handed out under appendLock so a concurrent clearGames() cannot reuse one
+        synchronized (appendLock) {
+            checkHealthy();
+            gameID = nextGameID.getAndIncrement();
+            stored.setGameID(gameID);
+            seq = append(encode(Record.game(stored)));
+            games.put(gameID, stored);
+        }
+        commit(seq);
+        return gameID;
+    }
+
+    /**
+     * createGame() for each game, with every record sharing one commit.
+     */
+    List<Integer> createGames(List<GameData> newGames) throws DataAccessException {
+        List<Integer> gameIDs = new ArrayList<>(newGames.size());
+        if (newGames.isEmpty()) {
+            return gameIDs;
+        }
+        List<GameData> stored = new ArrayList<>(newGames.size());
+        for (GameData game : newGames) {
+            stored.add(copy(game));
+        }
+        long seq = 0;
+        synchronized (appendLock) {
+            checkHealthy();
+            for (GameData game : stored) {
+                game.setGameID(nextGameID.getAndIncrement());
+                seq = append(encode(Record.game(game)));
+                games.put(game.getGameID(), game);
+                gameIDs.add(game.getGameID());
+            }
+        }
+        commit(seq);
+        return gameIDs;
+    }
+
+    GameData getGame(int gameID) throws DataAccessException {
+        GameData game = games.get(gameID);
+        if (game == null) {
+            throw new GameNotFoundException(gameID);
+        }
+        return copy(game);
+    }
+
+    /**
+     * The indexed games themselves, for read-only filtering.
+     */
+    Collection<GameData> games() {
+        return games.values();
+    }
+
+    List<GameData> copyGames() {
+        List<GameData> copies = new ArrayList<>(games.size());
+        for (GameData game : games.values()) {
+            copies.add(copy(game));
+        }
+        return copies;
+    }
+
+    /**
+     * Logs a full game, or just its moves when moves is not null, if the indexed
+     * game is still at expectedVersion.
+     */
+    void writeGameIfVersion(GameData game, int expectedVersion, int firstPly, List<ChessMove> moves)
+            throws DataAccessException {
+        GameData stored = copy(game);
+        byte[] line;
+        if (moves == null) {
+            line = encode(Record.game(stored));
+        } else {
+            List<String> notation = new ArrayList<>(moves.size());
+            for (ChessMove move : moves) {
+                notation.add(move.toNotation());
+            }
+            line = encode(Record.moves(game.getGameID(), firstPly, notation, game.getVersion()));
+        }
+        long seq;
+        synchronized (appendLock) {
+            checkHealthy();
+            GameData current = games.get(game.getGameID());
+            if (current == null) {
+                throw new DataAccessException("Game not found");
+            }
+            if (current.getVersion() != expectedVersion) {
+                throw new GameConflictException(game.getGameID());
+            }
+            seq = append(line);
+            games.put(game.getGameID(), stored);
+        }
+        commit(seq);
+    }
+
+    /**
+     * Fills an empty seat, logging just the seat rather than the game.
+     */
+    void claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        long seq;
+        synchronized (appendLock) {
+            checkHealthy();
+            GameData current = games.get(gameID);
+            if (current == null) {
+                throw new DataAccessException("Game not found");
+            }
+            GameData seated = InMemoryGameDAO.withSeat(current, color, username);
+            if (seated == null) {
+                throw GameDAO.seatTaken(color);
+            }
+            Record record = Record.op("seat");
+            record.gameID = gameID;
+            record.color = color;
+            record.username = username;
+            record.version = seated.getVersion();
+            seq = append(encode(record));
+            games.put(gameID, seated);
+        }
+        commit(seq);
+    }
+
+    void updateGames(Collection<GameData> updated) throws DataAccessException {
+        List<GameData> copies = new ArrayList<>(updated.size());
+        List<byte[]> lines = new ArrayList<>(updated.size());
+        for (GameData game : updated) {
+            GameData stored = copy(game);
+            copies.add(stored);
+            lines.add(encode(Record.game(stored)));
+        }
+        long seq = 0;
+        synchronized (appendLock) {
+            checkHealthy();
+            for (GameData game : copies) {
+                if (!games.containsKey(game.getGameID())) {
+                    throw new DataAccessException("Game not found");
+                }
+            }
+            for (int i = 0; i < copies.size(); i++) {
+                seq = append(lines.get(i));
+                games.put(copies.get(i).getGameID(), copies.get(i));
+            }
+        }
+        commit(seq);
+    }
+
+    void recordMoves(GameData game, int firstPly, List<ChessMove> moves) throws DataAccessException {
+        List<String> notation = new ArrayList<>(moves.size());
+        for (ChessMove move : moves) {
+            notation.add(move.toNotation());
+        }
+        GameData stored = copy(game);
+        byte[] line = encode(Record.moves(game.getGameID(), firstPly, notation, game.getVersion()));
+        long seq;
+        synchronized (appendLock) {
+            checkHealthy();
+            if (!games.containsKey(game.getGameID())) {
+                throw new DataAccessException("Game not found");
+            }
+            seq = append(line);
+            games.put(game.getGameID(), stored);
+        }
+        commit(seq);
+    }
+
+    void clearGames() throws DataAccessException {
+        long seq;
+        synchronized (appendLock) {
+            checkHealthy();
+            seq = append(encode(Record.op("clearGames")));
+            games.clear();
+            nextGameID.set(1);
+        }
+        commit(seq);
+    }
+
+    void createUser(UserData user) throws DataAccessException {
+        byte[] line = encode(Record.user(user));
+        long seq;
+        synchronized (appendLock) {
+            checkHealthy();
+            if (users.containsKey(user.username())) {
+                throw new DataAccessException("User already exists");
+            }
+            seq = append(line);
+            users.put(user.username(), user);
+        }
+        commit(seq);
+    }
+
+    UserData getUser(String username) {
+        return users.get(username);
+    }
+
+    void clearUsers() throws DataAccessException {
+        long seq;
+        synchronized (appendLock) {
+            checkHealthy();
+            seq = append(encode(Record.op("clearUsers")));
+            users.clear();
+        }
+        commit(seq);
+    }
+
+    void createAuth(AuthData auth) throws DataAccessException {
+        byte[] line = encode(Record.auth(auth));
+        long seq;
+        synchronized (appendLock) {
+            checkHealthy();
+            seq = append(line);
+            tokens.put(auth.authToken(), auth);
+        }
+        commit(seq);
+    }
+
+    AuthData getAuth(String authToken) {
+        return (authToken == null) ? null : tokens.get(authToken);
+    }
+
+    void deleteAuth(String authToken) throws DataAccessException {
+        long seq;
+        synchronized (appendLock) {
+            checkHealthy();
+            if (authToken == null || !tokens.containsKey(authToken)) {
+                throw new DataAccessException("Invalid authentication token");
+            }
+            Record record = Record.op("deleteAuth");
+            record.token = authToken;
+            seq = append(encode(record));
+            tokens.remove(authToken);
+        }
+        commit(seq);
+    }
+
+    void clearTokens() throws DataAccessException {
+        long seq;
+        synchronized (appendLock) {
+            checkHealthy();
+            seq = append(encode(Record.op("clearAuth")));
+            tokens.clear();
+        }
+        commit(seq);
+    }
+
+    /**
+     * Queues an encoded record; the caller holds appendLock.
+     *
+     * @return its sequence number, to pass to commit()
+     */
+    private long append(byte[] line) {
+        queued.add(line);
+        return ++appendedSeq;
+    }
+
+    private static byte[] encode(Record record) {
+        return (GSON.toJson(record) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns once the record numbered seq is on disk, writing and forcing
+     * everything queued so far unless another writer already has.
+     */
+    private void commit(long seq) throws DataAccessException {
+        if (durableSeq >= seq) {
+            return;
+        }
+        synchronized (commitLock) {
+            if (durableSeq >= seq) {
+                return;
+            }
+            try {
+                writeQueued();
+            } catch (IOException e) {
+                // The index is already ahead of the log, so stop taking writes rather than diverge
+                failure = e;
+                throw new DataAccessException("Error writing store log: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes and forces the queue; the caller holds commitLock.
+     */
+    private void writeQueued() throws IOException {
+        checkHealthyIO();
+        List<byte[]> batch;
+        long last;
+        synchronized (appendLock) {
+            batch = queued;
+            queued = new ArrayList<>();
+            last = appendedSeq;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(batch.get(i));
+        }
+        while (buffers[buffers.length - 1].hasRemaining()) {
+            log.write(buffers);
+        }
+        if (fsync) {
+            log.force(false);
+        }
+        recordsInLog += batch.size();
+        durableSeq = last;
+        commits.increment();
+        recordsWritten.add(batch.size());
+    }
+
+    private void checkHealthy() throws DataAccessException {
+        if (failure != null) {
+            throw new DataAccessException("Error: store is read-only after a write failure: " + failure.getMessage());
+        }
+    }
+
+    private void checkHealthyIO() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Opens the newest log generation, replaying it into the index.
+     */
+    private void open() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                String name = path.getFileName().toString();
+                if (name.startsWith(PREFIX) && name.endsWith(SUFFIX + ".tmp")) {
+                    Files.delete(path); // a compaction that never finished
+                } else if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                    generations.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                }
+            }
+        }
+        generations.sort(null);
+        generation = generations.isEmpty() ? 1 : generations.get(generations.size() - 1);
+        for (long older : generations) {
+            if (older != generation) {
+                Files.delete(logPath(older)); // a compaction that finished everything but the cleanup
+            }
+        }
+
+        Path path = logPath(generation);
+        long validLength = Files.exists(path) ? replay(path) : 0;
+        log = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (log.size() > validLength) {
+            System.out.println("Truncating torn record at the end of " + path.getFileName());
+            log.truncate(validLength);
+            log.force(false);
+        }
+        log.position(validLength);
+        int maxID = 0;
+        for (int gameID : games.keySet()) {
+            maxID = Math.max(maxID, gameID);
+        }
+        nextGameID.set(maxID + 1);
+    }
+
+    /**
+     * Applies every complete record in the log to the index.
+     *
+     * @return the length of the complete records; anything after them is a torn last line
+     * @throws IOException if a complete record cannot be read or applied
+     */
+    private long replay(Path path) throws IOException {
+        long valid = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                try {
+                    Record record = GSON.fromJson(line.toString(StandardCharsets.UTF_8), Record.class);
+                    if (record == null) {
+                        throw new IllegalStateException("empty record");
+                    }
+                    apply(record);
+                } catch (RuntimeException e) {
+                    // Only the unterminated last line can be torn by a crash, so this one was acknowledged
+                    throw new IOException("corrupt record at byte " + valid + " of " + path.getFileName()
+                            + ": " + e.getMessage(), e);
+                }
+                valid += line.size() + 1;
+                recordsInLog++;
+                line.reset();
+            }
+        }
+        return valid;
+    }
+
+    private void apply(Record record) {
+        switch (record.op) {
+            case "game" -> games.put(record.game.getGameID(), record.game);
+            case "moves" -> {
+                GameData game = games.get(record.gameID);
+                if (game == null) {
+                    return;
+                }
+                ChessGame chessGame = (game.getChessGame() == null) ? new ChessGame() : game.getChessGame();
+                for (int i = 0; i < record.moves.size(); i++) {
+                    // Ply n is the nth move; skip any the board already has
+                    if (record.firstPly + i == chessGame.getPlyCount() + 1) {
+                        try {
+                            chessGame.makeMove(ChessMove.fromNotation(record.moves.get(i)));
+                        } catch (Exception e) {
+                            throw new IllegalStateException("Move " + record.moves.get(i) + " does not replay", e);
+                        }
+                    }
+                }
+                game.setChessGame(chessGame);
+                game.setVersion(record.version);
+            }
+            case "seat" -> {
+                GameData game = games.get(record.gameID);
+                if (game != null) {
+                    if (record.color == ChessGame.TeamColor.WHITE) {
+                        game.setWhiteUsername(record.username);
+                    } else {
+                        game.setBlackUsername(record.username);
+                    }
+                    game.setVersion(record.version);
+                }
+            }
+            case "user" -> users.put(record.user.username(), record.user);
+            case "auth" -> tokens.put(record.auth.authToken(), record.auth);
+            case "deleteAuth" -> tokens.remove(record.token);
+            case "clearGames" -> games.clear();
+            case "clearUsers" -> users.clear();
+            case "clearAuth" -> tokens.clear();
+            default -> throw new IllegalStateException("Unknown record " + record.op);
+        }
+    }
+
+    /**
+     * Rewrites the log as one record per live game, user and token. Writers wait
+     * while it runs.
+     */
+    public void compact() throws DataAccessException {
+        synchronized (commitLock) {
+            synchronized (appendLock) {
+                try {
+                    writeQueued();
+                    long next = generation + 1;
+                    Path tmp = dir.resolve(logPath(next).getFileName() + ".tmp");
+                    try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                        ByteArrayOutputStream chunk = new ByteArrayOutputStream(1 << 16);
+                        for (GameData game : games.values()) {
+                            writeRecord(out, chunk, Record.game(game));
+                        }
+                        for (UserData user : users.values()) {
+                            writeRecord(out, chunk, Record.user(user));
+                        }
+                        for (AuthData auth : tokens.values()) {
+                            writeRecord(out, chunk, Record.auth(auth));
+                        }
+                        flushChunk(out, chunk);
+                        out.force(true);
+                    }
+                    Files.move(tmp, logPath(next), StandardCopyOption.ATOMIC_MOVE);
+                    forceDirectory();
+                    log.close();
+                    Files.delete(logPath(generation));
+                    generation = next;
+                    log = FileChannel.open(logPath(next), StandardOpenOption.WRITE);
+                    log.position(log.size());
+                    recordsInLog = games.size() + users.size() + tokens.size();
+                    compactions.increment();
+                } catch (IOException e) {
+                    failure = e;
+                    throw new DataAccessException("Error compacting store log: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void compactIfWorthIt() {
+        long live = games.size() + users.size() + tokens.size();
+        if (recordsInLog < MIN_COMPACT_RECORDS || recordsInLog < 2 * live) {
+            return;
+        }
+        try {
+            compact();
+        } catch (DataAccessException e) {
+            System.out.println("Store compaction failed: " + e.getMessage());
+        }
+    }
+
+    private static void writeRecord(FileChannel out, ByteArrayOutputStream chunk, Record record) throws IOException {
+        chunk.writeBytes(encode(record));
+        if (chunk.size() >= 1 << 16) {
+            flushChunk(out, chunk);
+        }
+    }
+
+    private static void flushChunk(FileChannel out, ByteArrayOutputStream chunk) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(chunk.toByteArray());
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        chunk.reset();
+    }
+
+    private void forceDirectory() {
+        // Makes the rename durable on Linux; other platforms cannot open a directory and do not need to
+        try (FileChannel directory = FileChannel.open(dir, StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            // Best effort
+        }
+    }
+
+    private Path logPath(long gen) {
+        return dir.resolve(String.format("%s%010d%s", PREFIX, gen, SUFFIX));
+    }
+
+    private static GameData copy(GameData game) {
+        return GSON.fromJson(GSON.toJson(game), GameData.class);
+    }
+
+    /**
+     * Stops the compactor and closes the log; every acknowledged write is already on disk.
+     */
+    @Override
+    public void close() throws DataAccessException {
+        compactor.shutdownNow();
+        synchronized (commitLock) {
+            try {
+                writeQueued();
+                log.force(true);
+                log.close();
+            } catch (IOException e) {
+                throw new DataAccessException("Error closing store log: " + e.getMessage());
+            }
+        }
+    }
+
+    public long getCommitCount() {
+        return commits.sum();
+    }
+
+    public long getRecordsWritten() {
+        return recordsWritten.sum();
+    }
+
+    public long getCompactionCount() {
+        return compactions.sum();
+    }
+
+    public long getGeneration() {
+        synchronized (commitLock) {
+            return generation;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FileStore[games=%d, users=%d, tokens=%d, commits=%d, records=%d, compactions=%d]",
+                games.size(), users.size(), tokens.size(), getCommitCount(), getRecordsWritten(),
+                getCompactionCount());
+    }
+
+    /**
+     * One line of the log.
+     */
+    private static final class Record {
+        String op;
+        GameData game;
+        int gameID;
+        int firstPly;
+        int version;
+        List<String> moves;
+        ChessGame.TeamColor color;
+        String username;
+        UserData user;
+        AuthData auth;
+        String token;
+
+        static Record op(String op) {
+            Record record = new Record();
+            record.op = op;
+            return record;
+        }
+
+        static Record game(GameData game) {
+            Record record = op("game");
+            record.game = game;
+            return record;
+        }
+
+        static Record moves(int gameID, int firstPly, List<String> moves, int version) {
+            Record record = op("moves");
+            record.gameID = gameID;
+            record.firstPly = firstPly;
+            record.moves = moves;
+            record.version = version;
+            return record;
+        }
+
+        static Record user(UserData user) {
+            Record record = op("user");
+            record.user = user;
+            return record;
+        }
+
+        static Record auth(AuthData auth) {
+            Record record = op("auth");
+            record.auth = auth;
+            return record;
+        }
+    }
+}
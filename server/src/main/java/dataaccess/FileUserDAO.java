@@ -0,0 +1,45 @@
+package dataaccess;
+
+import model.UserData;
+
+/**
+ * Users in a {@link FileStore}, with passwords stored as BCrypt hashes like MySQLUserDAO.
+ */
+public class FileUserDAO implements UserDAO {
+    private final FileStore store;
+    private final PasswordHasher hasher;
+
+    public FileUserDAO(FileStore store, PasswordHasher hasher) {
+        this.store = store;
+        this.hasher = hasher;
+    }
+
+    @Override
+    public void createUser(UserData user) throws DataAccessException {
+        if (store.getUser(user.username()) != null) {
+            // Skip the hash for the common duplicate; the store still checks under its lock
+            throw new DataAccessException("User already exists");
+        }
+        store.createUser(new UserData(user.username(), hasher.hash(user.password()), user.email()));
+    }
+
+    @Override
+    public boolean authenticateUser(String username, String password) throws DataAccessException {
+        UserData user = store.getUser(username);
+        return user != null && hasher.check(password, user.password());
+    }
+
+    @Override
+    public UserData getUser(String username) {
+        return store.getUser(username);
+    }
+
+    @Override
+    public void clear() {
+        try {
+            store.clearUsers();
+        } catch (DataAccessException e) {
+            System.out.println("Error clearing users: " + e.getMessage());
+        }
+    }
+}
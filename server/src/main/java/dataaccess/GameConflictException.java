@@ -0,0 +1,12 @@
+package dataaccess;
+
+/**
+ * Indicates a conditional game write lost a race: the stored game is no longer
+ * at the version the writer read. Callers reload the game and try again;
+ * handlers answer it with 409.
+ */
+public class GameConflictException extends DataAccessException {
+    public GameConflictException(int gameID) {
+        super("Error: conflicting update to game " + gameID + ", try again");
+    }
+}
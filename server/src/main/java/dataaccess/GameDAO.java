@@ -1,12 +1,161 @@
 package dataaccess;
 
+import chess.ChessGame;
+import chess.ChessMove;
 import model.GameData;
+import model.GameSummary;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Game storage. Writes persist {@link GameData#getVersion()} exactly as given;
+ * callers bump it whenever they change a game.
+ * <p>
+ * The conditional writes are compare-and-set on that version: they only apply
+ * if the stored game is still at expectedVersion, and throw
+ * {@link GameConflictException} otherwise, so read-modify-write cycles need no lock.
+ */
 public interface GameDAO {
     int createGame(GameData game) throws DataAccessException;
     GameData getGame(int gameID) throws DataAccessException;
     List<GameData> listGames() throws DataAccessException;
     void updateGame(GameData game) throws DataAccessException;
+
+    /**
+     * updateGame() if the stored game is still at expectedVersion.
+     */
+    void updateGameIfVersion(GameData game, int expectedVersion) throws DataAccessException;
+
+    /**
+     * recordMoves() if the stored game is still at expectedVersion.
+     */
+    void recordMovesIfVersion(GameData game, int expectedVersion, int firstPly, List<ChessMove> moves)
+            throws DataAccessException;
+
+    /**
+     * Loads several games, in the order of gameIDs, leaving out IDs with no
+     * game. By default one getGame() per ID.
+     */
+    default List<GameData> getGames(List<Integer> gameIDs) throws DataAccessException {
+        List<GameData> games = new ArrayList<>(gameIDs.size());
+        for (int gameID : gameIDs) {
+            try {
+                games.add(getGame(gameID));
+            } catch (GameNotFoundException e) {
+                // Deleted since it was listed
+            }
+        }
+        return games;
+    }
+
+    /**
+     * getGame() without blocking the caller, so it can overlap other lookups.
+     * By default the lookup runs on the calling thread.
+     */
+    default CompletableFuture<GameData> getGameAsync(int gameID) {
+        return DataAccessFutures.completed(() -> getGame(gameID));
+    }
+
+    /**
+     * Seats username as color if that seat is still empty, bumping the version,
+     * and throws "Error: WHITE seat is already taken" (or BLACK) if it is not.
+     * By default this is a compare-and-set of the whole game, retried while it conflicts.
+     */
+    default void claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        while (true) {
+            GameData game = getGame(gameID);
+            String seated = (color == ChessGame.TeamColor.WHITE) ? game.getWhiteUsername() : game.getBlackUsername();
+            if (seated != null) {
+                throw seatTaken(color);
+            }
+            if (color == ChessGame.TeamColor.WHITE) {
+                game.setWhiteUsername(username);
+            } else {
+                game.setBlackUsername(username);
+            }
+            int readVersion = game.getVersion();
+            game.setVersion(readVersion + 1);
+            try {
+                updateGameIfVersion(game, readVersion);
+                return;
+            } catch (GameConflictException e) {
+                // Someone else changed the game; look at the seat again
+            }
+        }
+    }
+
+    static DataAccessException seatTaken(ChessGame.TeamColor color) {
+        return new DataAccessException("Error: " + color + " seat is already taken");
+    }
+
+    /**
+     * Lists one page of games matching the query, without their boards.
+     * By default this filters listGames() in memory.
+     */
+    default List<GameSummary> listGameSummaries(GameQuery query) throws DataAccessException {
+        List<GameData> games = new ArrayList<>(listGames());
+        games.sort(Comparator.comparingInt(GameData::getGameID));
+        List<GameSummary> summaries = new ArrayList<>();
+        for (GameData game : games) {
+            if (summaries.size() >= query.limit()) {
+                break;
+            }
+            if (query.matches(game)) {
+                summaries.add(GameSummary.of(game));
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Creates several games at once and returns their IDs in the same order;
+     * by default one createGame() per game.
+     */
+    default List<Integer> createGames(List<GameData> games) throws DataAccessException {
+        List<Integer> gameIDs = new ArrayList<>(games.size());
+        for (GameData game : games) {
+            gameIDs.add(createGame(game));
+        }
+        return gameIDs;
+    }
+
+    /**
+     * Writes several games at once; by default one updateGame() per game.
+     */
+    default void updateGames(Collection<GameData> games) throws DataAccessException {
+        for (GameData game : games) {
+            updateGame(game);
+        }
+    }
+
+    /**
+     * Persists moves made on a game, {@code moves.get(i)} being ply {@code firstPly + i}.
+     * {@code game} is its state after those moves (or later). By default the whole
+     * game is rewritten with updateGame().
+     */
+    default void recordMoves(GameData game, int firstPly, List<ChessMove> moves) throws DataAccessException {
+        updateGame(game);
+    }
+
     void clear();
+
+    /**
+     * Names this store's current generation of games. It changes on clear() and
+     * on restart, where game IDs and versions may start over, so anything keyed
+     * on gameID and version (like an ETag) should include it.
+     */
+    default String getEpoch() {
+        return "0";
+    }
+
+    /**
+     * A fresh random epoch for stores to take on creation and clear().
+     */
+    static String newEpoch() {
+        return Long.toHexString(ThreadLocalRandom.current().nextLong());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,175 @@
+package dataaccess;
+
+import chess.ChessMove;
+import com.google.gson.Gson;
+import model.GameData;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, segmented journal of game writes used by WriteBehindGameDAO.
+ * <p>
+ * Each write is appended as one JSON line to the current segment: the game's new
+ * state plus any moves that produced it. A flush rotates to a new segment first,
+ * so once the flushed games reach the database every segment up to the rotated
+ * one can be deleted. On startup the remaining segments are replayed in order and
+ * merged per game, keeping every journaled move.
+ */
+class GameJournal implements AutoCloseable {
+    private static final String SUFFIX = ".journal";
+
+    private final Path dir;
+    private final boolean syncEveryWrite;
+    private final Gson gson = new Gson();
+    private FileChannel current;
+    private long currentSegment;
+
+    GameJournal(Path dir, boolean syncEveryWrite) throws IOException {
+        this.dir = dir;
+        this.syncEveryWrite = syncEveryWrite;
+        Files.createDirectories(dir);
+        List<Long> existing = segments();
+        currentSegment = existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1;
+        current = open(currentSegment);
+    }
+
+    /**
+     * Writes recorded in the journal, merged per game, in the order they were last written.
+     */
+    Collection<PendingGameWrite> replay() throws IOException {
+        Map<Integer, PendingGameWrite> latest = new LinkedHashMap<>();
+        for (long segment : segments()) {
+            try (BufferedReader reader = Files.newBufferedReader(segmentPath(segment), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        PendingGameWrite write = parse(line);
+                        PendingGameWrite earlier = latest.remove(write.game.getGameID());
+                        latest.put(write.game.getGameID(), (earlier == null) ? write : earlier.then(write));
+                    } catch (RuntimeException e) {
+                        // A torn final line from a crash mid-write; everything before it is intact
+                        System.out.println("Skipping unreadable journal record in segment " + segment);
+                    }
+                }
+            }
+        }
+        return latest.values();
+    }
+
+    synchronized void append(PendingGameWrite write) throws IOException {
+        Record record = new Record();
+        record.game = write.game;
+        record.snapshot = write.snapshot;
+        record.firstPly = write.firstPly;
+        record.moves = new ArrayList<>(write.moves.size());
+        for (ChessMove move : write.moves) {
+            record.moves.add(move.toNotation());
+        }
+        byte[] line = (gson.toJson(record) + "\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        while (buffer.hasRemaining()) {
+            current.write(buffer);
+        }
+        if (syncEveryWrite) {
+            current.force(false);
+        }
+    }
+
+    private PendingGameWrite parse(String line) {
+        Record record = gson.fromJson(line, Record.class);
+        if (record.game == null) {
+            // Journals written before moves were logged hold a bare GameData per line
+            return new PendingGameWrite(gson.fromJson(line, GameData.class), 0, List.of(), true);
+        }
+        List<ChessMove> moves = new ArrayList<>();
+        if (record.moves != null) {
+            for (String notation : record.moves) {
+                ChessMove move = ChessMove.fromNotation(notation);
+                if (move == null) {
+                    throw new IllegalStateException("Unreadable move " + notation);
+                }
+                moves.add(move);
+            }
+        }
+        return new PendingGameWrite(record.game, record.firstPly, moves, record.snapshot);
+    }
+
+    /**
+     * Seals the current segment and starts a new one.
+     *
+     * @return the sealed segment number
+     */
+    synchronized long rotate() throws IOException {
+        long sealed = currentSegment;
+        current.force(false);
+        current.close();
+        currentSegment++;
+        current = open(currentSegment);
+        return sealed;
+    }
+
+    synchronized void force() throws IOException {
+        current.force(false);
+    }
+
+    /**
+     * Deletes every sealed segment numbered up to and including {@code segment}.
+     */
+    synchronized void deleteThrough(long segment) throws IOException {
+        for (long existing : segments()) {
+            if (existing <= segment && existing != currentSegment) {
+                Files.deleteIfExists(segmentPath(existing));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        current.force(false);
+        current.close();
+    }
+
+    private static class Record {
+        GameData game;
+        int firstPly;
+        List<String> moves;
+        boolean snapshot;
+    }
+
+    private FileChannel open(long segment) throws IOException {
+        return FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long segment) {
+        return dir.resolve(String.format("games-%010d%s", segment, SUFFIX));
+    }
+
+    private List<Long> segments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith("games-") && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring("games-".length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .forEach(segments::add);
+        }
+        return segments;
+    }
+}
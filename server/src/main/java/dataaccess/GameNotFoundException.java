@@ -0,0 +1,10 @@
+package dataaccess;
+
+/**
+ * Indicates there is no game with the requested ID; handlers answer it with 404.
+ */
+public class GameNotFoundException extends DataAccessException {
+    public GameNotFoundException(int gameID) {
+        super("Error: game " + gameID + " not found");
+    }
+}
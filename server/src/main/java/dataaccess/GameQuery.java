@@ -0,0 +1,44 @@
+package dataaccess;
+
+import model.GameData;
+
+/**
+ * Filters and keyset position for listing games. Results come back in gameID
+ * order starting after {@code after}, at most {@code limit} of them.
+ *
+ * @param after         last gameID of the previous page, 0 for the first page
+ * @param limit         maximum number of games to return
+ * @param openSeatsOnly only games with a free white or black seat
+ * @param player        only games this username plays in, or null for anyone
+ * @param status        active or finished games, or both
+ */
+public record GameQuery(int after, int limit, boolean openSeatsOnly, String player, Status status) {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    public enum Status {
+        ANY, ACTIVE, FINISHED
+    }
+
+    public GameQuery withLimit(int newLimit) {
+        return new GameQuery(after, newLimit, openSeatsOnly, player, status);
+    }
+
+    public boolean matches(GameData game) {
+        if (game.getGameID() <= after) {
+            return false;
+        }
+        if (openSeatsOnly && game.getWhiteUsername() != null && game.getBlackUsername() != null) {
+            return false;
+        }
+        if (player != null && !player.equals(game.getWhiteUsername()) && !player.equals(game.getBlackUsername())) {
+            return false;
+        }
+        return switch (status) {
+            case ANY -> true;
+            case ACTIVE -> !game.isFinished();
+            case FINISHED -> game.isFinished();
+        };
+    }
+}
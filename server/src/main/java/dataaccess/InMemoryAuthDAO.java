@@ -1,11 +1,13 @@
 package dataaccess;
 
 import model.AuthData;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Auth tokens held in memory, safe for concurrent requests.
+ */
 public class InMemoryAuthDAO implements AuthDAO {
-    private final Map<String, AuthData> authTokens = new HashMap<>();
+    private final ConcurrentHashMap<String, AuthData> authTokens = new ConcurrentHashMap<>();
 
     @Override
     public void createAuth(AuthData auth) {
@@ -15,17 +17,15 @@ public class InMemoryAuthDAO implements AuthDAO {
     @Override
     public AuthData getAuth(String authToken) throws DataAccessException {
         // Return null if the token doesn't exist
-        return authTokens.get(authToken);
-        // This automatically returns null if the key isn't in the map
+        return (authToken == null) ? null : authTokens.get(authToken);
     }
 
 
     @Override
     public void deleteAuth(String authToken) throws DataAccessException {
-        if (!authTokens.containsKey(authToken)) {
+        if (authToken == null || authTokens.remove(authToken) == null) {
             throw new DataAccessException("Invalid authentication token");
         }
-        authTokens.remove(authToken);
     }
 
     @Override
@@ -1,44 +1,163 @@
 package dataaccess;
 
+import com.google.gson.Gson;
+import chess.ChessGame;
+import chess.ChessMove;
 import model.GameData;
+import model.GameSummary;
+
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Games held in memory, safe for concurrent requests.
+ * <p>
+ * Like a database row, each stored game is a private copy: createGame and
+ * updateGame store a copy of what they are given and getGame hands out a
+ * fresh copy, so callers never share mutable game state through the DAO.
+ */
 public class InMemoryGameDAO implements GameDAO {
-    private final Map<Integer, GameData> games = new HashMap<>();
-    private int nextGameID = 1;
+    private static final Gson GSON = new Gson();
+
+    private final ConcurrentHashMap<Integer, GameData> games = new ConcurrentHashMap<>();
+    private final AtomicInteger nextGameID = new AtomicInteger(1);
+    private volatile String epoch = GameDAO.newEpoch();
 
+    /**
+     * Synchronized with clear() so a game created during a clear can never keep
+     * an ID that the reset counter hands out again.
+     */
     @Override
     public int createGame(GameData game) {
-        int gameID = nextGameID++;
-        GameData newGame = new GameData(gameID);
-        games.put(gameID, newGame);
-        return gameID;
+        GameData newGame = copy(game);
+        synchronized (this) {
+            int gameID = nextGameID.getAndIncrement();
+            newGame.setGameID(gameID);
+            games.put(gameID, newGame);
+            return gameID;
+        }
     }
 
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
-        if (!games.containsKey(gameID)) {
-            throw new DataAccessException("Game not found");
+        GameData game = games.get(gameID);
+        if (game == null) {
+            throw new GameNotFoundException(gameID);
         }
-        return games.get(gameID);
+        return copy(game);
     }
 
     @Override
     public List<GameData> listGames() {
-        return new ArrayList<>(games.values());
+        List<GameData> list = new ArrayList<>(games.size());
+        for (GameData game : games.values()) {
+            list.add(copy(game));
+        }
+        return list;
+    }
+
+    /**
+     * Filters the stored games directly, copying nothing but the summaries.
+     */
+    @Override
+    public List<GameSummary> listGameSummaries(GameQuery query) {
+        List<GameData> matching = new ArrayList<>();
+        for (GameData game : games.values()) {
+            if (query.matches(game)) {
+                matching.add(game);
+            }
+        }
+        matching.sort(Comparator.comparingInt(GameData::getGameID));
+        List<GameSummary> page = new ArrayList<>(Math.min(matching.size(), query.limit()));
+        for (GameData game : matching.subList(0, Math.min(matching.size(), query.limit()))) {
+            page.add(GameSummary.of(game));
+        }
+        return page;
     }
 
     @Override
     public void updateGame(GameData game) throws DataAccessException {
-        if (!games.containsKey(game.getGameID())) {
+        if (games.replace(game.getGameID(), copy(game)) == null) {
+            throw new DataAccessException("Game not found");
+        }
+    }
+
+    @Override
+    public void updateGameIfVersion(GameData game, int expectedVersion) throws DataAccessException {
+        GameData replacement = copy(game);
+        boolean[] conflict = new boolean[1];
+        GameData result = games.computeIfPresent(game.getGameID(), (id, current) -> {
+            if (current.getVersion() != expectedVersion) {
+                conflict[0] = true;
+                return current;
+            }
+            return replacement;
+        });
+        if (result == null) {
             throw new DataAccessException("Game not found");
         }
-        games.put(game.getGameID(), game);
+        if (conflict[0]) {
+            throw new GameConflictException(game.getGameID());
+        }
     }
 
     @Override
-    public void clear() {
+    public void recordMovesIfVersion(GameData game, int expectedVersion, int firstPly, List<ChessMove> moves)
+            throws DataAccessException {
+        updateGameIfVersion(game, expectedVersion);
+    }
+
+    @Override
+    public void claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        boolean[] taken = new boolean[1];
+        GameData result = games.computeIfPresent(gameID, (id, current) -> {
+            GameData seated = withSeat(current, color, username);
+            taken[0] = (seated == null);
+            return taken[0] ? current : seated;
+        });
+        if (result == null) {
+            throw new DataAccessException("Game not found");
+        }
+        if (taken[0]) {
+            throw GameDAO.seatTaken(color);
+        }
+    }
+
+    /**
+     * A copy of game sharing its board, with username in the empty seat and the
+     * version bumped, or null if the seat is taken. Stored games are never
+     * modified in place, so sharing the board is safe.
+     */
+    static GameData withSeat(GameData game, ChessGame.TeamColor color, String username) {
+        boolean white = (color == ChessGame.TeamColor.WHITE);
+        if ((white ? game.getWhiteUsername() : game.getBlackUsername()) != null) {
+            return null;
+        }
+        GameData seated = new GameData(game.getGameID(),
+                white ? username : game.getWhiteUsername(),
+                white ? game.getBlackUsername() : username,
+                game.getGameName(), game.getChessGame());
+        seated.setWinner(game.getWinner());
+        seated.setResignedPlayer(game.getResignedPlayer());
+        seated.setGameOver(game.isGameOver());
+        seated.setVersion(game.getVersion() + 1);
+        return seated;
+    }
+
+    @Override
+    public synchronized void clear() {
+        epoch = GameDAO.newEpoch();
         games.clear();
-        nextGameID = 1;
+        nextGameID.set(1);
+    }
+
+    @Override
+    public String getEpoch() {
+        return epoch;
+    }
+
+    private static GameData copy(GameData game) {
+        return GSON.fromJson(GSON.toJson(game), GameData.class);
     }
-}
\ No newline at end of file
+}
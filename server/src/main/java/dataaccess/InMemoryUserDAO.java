@@ -1,24 +1,42 @@
 package dataaccess;
 
 import model.UserData;
-import java.util.HashMap;
-import java.util.Map;
 
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Users held in memory, safe for concurrent requests. With a PasswordHasher
+ * passwords are stored as BCrypt hashes like MySQLUserDAO does; without one
+ * they are kept as given, which is only meant for tests.
+ */
 public class InMemoryUserDAO implements UserDAO {
-    private Map<String, UserData> users = new HashMap<>();
+    private final ConcurrentHashMap<String, UserData> users = new ConcurrentHashMap<>();
+    private final PasswordHasher hasher;
+
+    public InMemoryUserDAO() {
+        this(null);
+    }
+
+    public InMemoryUserDAO(PasswordHasher hasher) {
+        this.hasher = hasher;
+    }
 
     @Override
     public void createUser(UserData user) throws DataAccessException {
-        if (users.containsKey(user.username())) {
+        String password = (hasher != null) ? hasher.hash(user.password()) : user.password();
+        UserData stored = new UserData(user.username(), password, user.email());
+        if (users.putIfAbsent(user.username(), stored) != null) {
             throw new DataAccessException("User already exists");  // Handle existing user case
         }
-        users.put(user.username(), user);
     }
 
     @Override
     public boolean authenticateUser(String username, String password) throws DataAccessException {
         UserData user = users.get(username);
-        return user != null && user.password().equals(password);
+        if (user == null) {
+            return false;
+        }
+        return (hasher != null) ? hasher.check(password, user.password()) : user.password().equals(password);
     }
 
     @Override
@@ -31,4 +49,4 @@ public class InMemoryUserDAO implements UserDAO {
     public void clear() {
         users.clear();  // Clears the in-memory user data
     }
-}
\ No newline at end of file
+}
@@ -2,18 +2,50 @@ package dataaccess;
 
 import model.AuthData;
 import java.sql.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
-public class MySQLAuthDAO implements AuthDAO {
+/**
+ * Auth tokens in the AuthTokens table, each expiring ttlMs after it was issued
+ * or last renewed.
+ * <p>
+ * Expired tokens read as not found. A lookup in the second half of a token's
+ * life pushes its expiry out by another ttlMs, so active sessions never expire
+ * while each token is rewritten at most once per half-TTL. An optional sweeper
+ * deletes expired rows in small batches through the expiresAt index, so the
+ * table stays small without long-held locks.
+ */
+public class MySQLAuthDAO implements AuthDAO, AutoCloseable {
+
+    public static final long DEFAULT_TTL_MS = 24 * 60 * 60 * 1000L;
+
+    private final long ttlMs;
+    private ScheduledExecutorService sweeper;
+
+    private final LongAdder renewed = new LongAdder();
+    private final LongAdder swept = new LongAdder();
+
+    public MySQLAuthDAO() {
+        this(DEFAULT_TTL_MS);
+    }
+
+    public MySQLAuthDAO(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
 
     @Override
     public void createAuth(AuthData auth) throws DataAccessException {
-        String sql = "INSERT INTO AuthTokens (authToken, username) VALUES (?, ?)";
+        String sql = "INSERT INTO AuthTokens (authToken, username, expiresAt) VALUES (?, ?, ?)";
 
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, auth.authToken());
             stmt.setString(2, auth.username());
+            stmt.setTimestamp(3, new Timestamp(System.currentTimeMillis() + ttlMs));
 
             stmt.executeUpdate();
         } catch (SQLException e) {
@@ -23,7 +55,7 @@ public class MySQLAuthDAO implements AuthDAO {
 
     @Override
     public AuthData getAuth(String authToken) throws DataAccessException {
-        String sql = "SELECT authToken, username FROM AuthTokens WHERE authToken = ?";
+        String sql = "SELECT authToken, username, expiresAt FROM AuthTokens WHERE authToken = ?";
 
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -32,10 +64,17 @@ public class MySQLAuthDAO implements AuthDAO {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return new AuthData(
-                            rs.getString("authToken"),
-                            rs.getString("username")
-                    );
+                    long now = System.currentTimeMillis();
+                    Timestamp expiresAt = rs.getTimestamp("expiresAt");
+                    if (expiresAt == null || expiresAt.getTime() > now) {
+                        if (expiresAt == null || expiresAt.getTime() - now < ttlMs / 2) {
+                            renew(conn, authToken, now);
+                        }
+                        return new AuthData(
+                                rs.getString("authToken"),
+                                rs.getString("username")
+                        );
+                    }
                 }
             }
         } catch (SQLException e) {
@@ -45,6 +84,21 @@ public class MySQLAuthDAO implements AuthDAO {
         throw new DataAccessException("Auth token not found: " + authToken);
     }
 
+    @Override
+    public CompletableFuture<AuthData> getAuthAsync(String authToken) {
+        return DatabaseManager.supplyAsync(() -> getAuth(authToken));
+    }
+
+    private void renew(Connection conn, String authToken, long now) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE AuthTokens SET expiresAt = ? WHERE authToken = ?")) {
+            stmt.setTimestamp(1, new Timestamp(now + ttlMs));
+            stmt.setString(2, authToken);
+            stmt.executeUpdate();
+        }
+        renewed.increment();
+    }
+
     @Override
     public void deleteAuth(String authToken) throws DataAccessException {
         String sql = "DELETE FROM AuthTokens WHERE authToken = ?";
@@ -72,4 +126,68 @@ public class MySQLAuthDAO implements AuthDAO {
             System.out.println("Error clearing AuthTokens table: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Deletes expired tokens batchSize rows at a time, each batch its own short
+     * statement, until a batch comes back short.
+     *
+     * @return the number of tokens deleted
+     */
+    public int sweepExpired(int batchSize) throws DataAccessException {
+        String sql = "DELETE FROM AuthTokens WHERE expiresAt < ? ORDER BY expiresAt LIMIT ?";
+        int total = 0;
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int deleted;
+            do {
+                stmt.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+                stmt.setInt(2, batchSize);
+                deleted = stmt.executeUpdate();
+                total += deleted;
+            } while (deleted == batchSize);
+        } catch (SQLException e) {
+            throw new DataAccessException("Error in sweepExpired: " + e.getMessage());
+        }
+        swept.add(total);
+        return total;
+    }
+
+    /**
+     * Runs {@link #sweepExpired} every intervalMs on a daemon thread until close().
+     */
+    public synchronized void startSweeper(long intervalMs, int batchSize) {
+        if (sweeper != null) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "auth-token-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(() -> {
+            try {
+                int deleted = sweepExpired(batchSize);
+                if (deleted > 0) {
+                    System.out.println("Swept " + deleted + " expired auth tokens");
+                }
+            } catch (DataAccessException e) {
+                System.out.println("Auth token sweep failed: " + e.getMessage());
+            }
+        }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    public long getRenewedCount() {
+        return renewed.sum();
+    }
+
+    public long getSweptCount() {
+        return swept.sum();
+    }
+}
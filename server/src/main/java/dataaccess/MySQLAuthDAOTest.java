@@ -77,4 +77,17 @@ public class MySQLAuthDAOTest {
             authDAO.getAuth("abc");
         }, "After clear(), no tokens remain.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void expiredTokenIsNotFoundAndSwept() throws DataAccessException {
+        MySQLAuthDAO expiring = new MySQLAuthDAO(-1);
+        expiring.createAuth(new AuthData("expired", "erin"));
+        authDAO.createAuth(new AuthData("live", "frank"));
+
+        assertThrows(DataAccessException.class, () -> {
+            authDAO.getAuth("expired");
+        }, "An expired token should read as not found.");
+        assertEquals(1, authDAO.sweepExpired(1));
+        assertEquals("frank", authDAO.getAuth("live").username());
+    }
+}
@@ -1,15 +1,33 @@
 package dataaccess;
 
 import model.GameData;
+import model.GameSummary;
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
 import com.google.gson.Gson;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Games are stored as a snapshot in Games plus an append-only move log in GameMoves.
+ * <p>
+ * recordMoves() inserts one small row per move and only rewrites the gameJSON
+ * snapshot every SNAPSHOT_INTERVAL plies. Loading a game reads the snapshot and
+ * replays the moves made after its snapshotPly.
+ */
 public class MySQLGameDAO implements GameDAO {
 
+    static final int SNAPSHOT_INTERVAL = 20;
+
     private final Gson gson = new Gson();
+    private volatile String epoch = GameDAO.newEpoch();
 
     @Override
     public int createGame(GameData game) throws DataAccessException {
@@ -42,58 +60,279 @@ public class MySQLGameDAO implements GameDAO {
         return -1;
     }
 
+    /**
+     * Inserts every game as one JDBC batch in a single transaction, so either
+     * all of them are created or none are. Games sharing a ChessGame instance,
+     * such as a batch of fresh boards, share one serialized gameJSON.
+     */
+    @Override
+    public List<Integer> createGames(List<GameData> games) throws DataAccessException {
+        List<Integer> gameIDs = new ArrayList<>(games.size());
+        if (games.isEmpty()) {
+            return gameIDs;
+        }
+        String sql = """
+            INSERT INTO Games (whiteUsername, blackUsername, gameName, gameJSON)
+            VALUES (?, ?, ?, ?)
+            """;
+        Map<ChessGame, String> serialized = new IdentityHashMap<>();
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (GameData game : games) {
+                    stmt.setString(1, game.getWhiteUsername());
+                    stmt.setString(2, game.getBlackUsername());
+                    stmt.setString(3, game.getGameName());
+                    stmt.setString(4, serialized.computeIfAbsent(game.getChessGame(), gson::toJson));
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    while (rs.next()) {
+                        gameIDs.add(rs.getInt(1));
+                    }
+                }
+                if (gameIDs.size() != games.size()) {
+                    throw new SQLException("expected " + games.size() + " generated keys, got " + gameIDs.size());
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error creating games: " + e.getMessage());
+        }
+        return gameIDs;
+    }
+
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
         String sql = "SELECT * FROM Games WHERE gameID = ?";
+        String tailSql = "SELECT move FROM GameMoves WHERE gameID = ? AND ply > ? ORDER BY ply";
 
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, gameID);
 
+            GameData game;
+            int snapshotPly;
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    // Deserialize JSON back into a ChessGame
-                    String gameJson = rs.getString("gameJSON");
-                    ChessGame chessGame = gson.fromJson(gameJson, ChessGame.class);
+                if (!rs.next()) {
+                    throw new GameNotFoundException(gameID);
+                }
+                game = readGame(rs);
+                snapshotPly = rs.getInt("snapshotPly");
+            }
 
-                    return new GameData(
-                            rs.getInt("gameID"),
-                            rs.getString("whiteUsername"),
-                            rs.getString("blackUsername"),
-                            rs.getString("gameName"),
-                            chessGame
-                    );
+            List<String> tail = new ArrayList<>();
+            try (PreparedStatement tailStmt = conn.prepareStatement(tailSql)) {
+                tailStmt.setInt(1, gameID);
+                tailStmt.setInt(2, snapshotPly);
+                try (ResultSet rs = tailStmt.executeQuery()) {
+                    while (rs.next()) {
+                        tail.add(rs.getString("move"));
+                    }
                 }
             }
+            replay(game, tail);
+            return game;
         } catch (SQLException e) {
             throw new DataAccessException("Error retrieving game: " + e.getMessage());
         }
+    }
+
+    /**
+     * Two queries whatever the number of games: the snapshot rows by
+     * {@code gameID IN (...)}, then every move logged after those snapshots,
+     * ordered by game and ply.
+     */
+    @Override
+    public List<GameData> getGames(List<Integer> gameIDs) throws DataAccessException {
+        if (gameIDs.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String in = String.join(", ", java.util.Collections.nCopies(gameIDs.size(), "?"));
+        String sql = "SELECT * FROM Games WHERE gameID IN (" + in + ")";
+        String tailSql = """
+            SELECT m.gameID, m.move FROM GameMoves m
+            JOIN Games g ON g.gameID = m.gameID
+            WHERE m.gameID IN (%s) AND m.ply > g.snapshotPly
+            ORDER BY m.gameID, m.ply
+            """.formatted(in);
 
-        throw new DataAccessException("Game not found for ID: " + gameID);
+        try (Connection conn = DatabaseManager.getConnection()) {
+            Map<Integer, GameData> found = new HashMap<>();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < gameIDs.size(); i++) {
+                    stmt.setInt(i + 1, gameIDs.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        GameData game = readGame(rs);
+                        found.put(game.getGameID(), game);
+                    }
+                }
+            }
+
+            Map<Integer, List<String>> tails = new HashMap<>();
+            try (PreparedStatement stmt = conn.prepareStatement(tailSql)) {
+                for (int i = 0; i < gameIDs.size(); i++) {
+                    stmt.setInt(i + 1, gameIDs.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        tails.computeIfAbsent(rs.getInt("gameID"), id -> new ArrayList<>()).add(rs.getString("move"));
+                    }
+                }
+            }
+
+            List<GameData> games = new ArrayList<>(found.size());
+            for (int gameID : gameIDs) {
+                GameData game = found.get(gameID);
+                if (game != null) {
+                    replay(game, tails.getOrDefault(gameID, List.of()));
+                    games.add(game);
+                }
+            }
+            return games;
+        } catch (SQLException e) {
+            throw new DataAccessException("Error retrieving games: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sets gameOver on every stored game that is finished but not marked so,
+     * walking the unmarked games a page at a time. Returns how many were set.
+     */
+    int backfillGameOver() throws DataAccessException {
+        final int pageSize = 500;
+        String pageSql = "SELECT gameID FROM Games WHERE gameOver = FALSE AND gameID > ? ORDER BY gameID LIMIT ?";
+        String markSql = "UPDATE Games SET gameOver = TRUE WHERE gameID = ?";
+        int marked = 0;
+        int after = 0;
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            while (true) {
+                List<Integer> gameIDs = new ArrayList<>();
+                try (PreparedStatement stmt = conn.prepareStatement(pageSql)) {
+                    stmt.setInt(1, after);
+                    stmt.setInt(2, pageSize);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            gameIDs.add(rs.getInt("gameID"));
+                        }
+                    }
+                }
+                if (gameIDs.isEmpty()) {
+                    return marked;
+                }
+                after = gameIDs.get(gameIDs.size() - 1);
+
+                try (PreparedStatement stmt = conn.prepareStatement(markSql)) {
+                    for (GameData game : getGames(gameIDs)) {
+                        if (game.isFinished()) {
+                            stmt.setInt(1, game.getGameID());
+                            stmt.addBatch();
+                            marked++;
+                        }
+                    }
+                    stmt.executeBatch();
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error backfilling gameOver: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public CompletableFuture<GameData> getGameAsync(int gameID) {
+        return DatabaseManager.supplyAsync(() -> getGame(gameID));
     }
 
     @Override
     public List<GameData> listGames() throws DataAccessException {
         List<GameData> results = new ArrayList<>();
         String sql = "SELECT * FROM Games";
+        String tailSql = """
+            SELECT m.gameID, m.move FROM GameMoves m
+            JOIN Games g ON g.gameID = m.gameID
+            WHERE m.ply > g.snapshotPly
+            ORDER BY m.gameID, m.ply
+            """;
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    results.add(readGame(rs));
+                }
+            }
+
+            Map<Integer, List<String>> tails = new HashMap<>();
+            try (PreparedStatement stmt = conn.prepareStatement(tailSql);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    tails.computeIfAbsent(rs.getInt("gameID"), id -> new ArrayList<>()).add(rs.getString("move"));
+                }
+            }
+            for (GameData game : results) {
+                List<String> tail = tails.get(game.getGameID());
+                if (tail != null) {
+                    replay(game, tail);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error listing games: " + e.getMessage());
+        }
+        return results;
+    }
+
+    /**
+     * Reads only the metadata columns, so listing never touches the board snapshots or move log.
+     * Pages are keyset-based (gameID > after), so every page is an index range scan
+     * no matter how deep into the table it is.
+     */
+    @Override
+    public List<GameSummary> listGameSummaries(GameQuery query) throws DataAccessException {
+        List<GameSummary> results = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(
+                "SELECT gameID, whiteUsername, blackUsername, gameName FROM Games WHERE gameID > ?");
+        if (query.openSeatsOnly()) {
+            sql.append(" AND (whiteUsername IS NULL OR blackUsername IS NULL)");
+        }
+        if (query.player() != null) {
+            sql.append(" AND (whiteUsername = ? OR blackUsername = ?)");
+        }
+        if (query.status() != GameQuery.Status.ANY) {
+            sql.append(" AND gameOver = ?");
+        }
+        sql.append(" ORDER BY gameID LIMIT ?");
 
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                String gameJson = rs.getString("gameJSON");
-                ChessGame chessGame = gson.fromJson(gameJson, ChessGame.class);
-
-                GameData gd = new GameData(
-                        rs.getInt("gameID"),
-                        rs.getString("whiteUsername"),
-                        rs.getString("blackUsername"),
-                        rs.getString("gameName"),
-                        chessGame
-                );
-                results.add(gd);
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int i = 1;
+            stmt.setInt(i++, query.after());
+            if (query.player() != null) {
+                stmt.setString(i++, query.player());
+                stmt.setString(i++, query.player());
+            }
+            if (query.status() != GameQuery.Status.ANY) {
+                stmt.setBoolean(i++, query.status() == GameQuery.Status.FINISHED);
+            }
+            stmt.setInt(i, query.limit());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    results.add(new GameSummary(
+                            rs.getInt("gameID"),
+                            rs.getString("whiteUsername"),
+                            rs.getString("blackUsername"),
+                            rs.getString("gameName")
+                    ));
+                }
             }
         } catch (SQLException e) {
             throw new DataAccessException("Error listing games: " + e.getMessage());
@@ -101,37 +340,293 @@ public class MySQLGameDAO implements GameDAO {
         return results;
     }
 
+    /**
+     * Every move made in a game, oldest first.
+     */
+    public List<ChessMove> getMoveHistory(int gameID) throws DataAccessException {
+        String sql = "SELECT move FROM GameMoves WHERE gameID = ? ORDER BY ply";
+        List<ChessMove> moves = new ArrayList<>();
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, gameID);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    moves.add(ChessMove.fromNotation(rs.getString("move")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error retrieving move history: " + e.getMessage());
+        }
+        return moves;
+    }
+
+    private GameData readGame(ResultSet rs) throws SQLException {
+        // Deserialize JSON back into a ChessGame
+        String gameJson = rs.getString("gameJSON");
+        ChessGame chessGame = gson.fromJson(gameJson, ChessGame.class);
+
+        GameData game = new GameData(
+                rs.getInt("gameID"),
+                rs.getString("whiteUsername"),
+                rs.getString("blackUsername"),
+                rs.getString("gameName"),
+                chessGame
+        );
+        game.setGameOver(rs.getBoolean("gameOver"));
+        game.setVersion(rs.getInt("version"));
+        return game;
+    }
+
+    /**
+     * Applies the moves logged after the snapshot to bring the game up to date.
+     */
+    private void replay(GameData game, List<String> tail) throws DataAccessException {
+        if (tail.isEmpty()) {
+            return;
+        }
+        ChessGame chessGame = (game.getChessGame() == null) ? new ChessGame() : game.getChessGame();
+        for (String notation : tail) {
+            ChessMove move = ChessMove.fromNotation(notation);
+            try {
+                if (move == null) {
+                    throw new InvalidMoveException("unreadable move " + notation);
+                }
+                chessGame.makeMove(move);
+            } catch (InvalidMoveException e) {
+                throw new DataAccessException("Corrupt move log for game " + game.getGameID() + ": " + e.getMessage());
+            }
+        }
+        game.setChessGame(chessGame);
+    }
+
+    /**
+     * Rewrites the whole game and makes it the new snapshot.
+     */
     @Override
     public void updateGame(GameData game) throws DataAccessException {
-        String sql = """
-            UPDATE Games
-            SET whiteUsername = ?, blackUsername = ?, gameName = ?, gameJSON = ?
-            WHERE gameID = ?
-            """;
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int rows = writeSnapshots(conn, List.of(game), null)[0];
+                if (rows == 0) {
+                    conn.rollback();
+                    throw new DataAccessException("No game with ID " + game.getGameID() + " found to update.");
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error updating game: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrites the game with {@code UPDATE ... WHERE gameID = ? AND version = ?}.
+     */
+    @Override
+    public void updateGameIfVersion(GameData game, int expectedVersion) throws DataAccessException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                if (writeSnapshots(conn, List.of(game), expectedVersion)[0] == 0) {
+                    conn.rollback();
+                    throw missingOrConflict(conn, game.getGameID());
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error updating game: " + e.getMessage());
+        }
+    }
+
+    /**
+     * One conditional UPDATE of the seat column and version; the board is never read or written.
+     */
+    @Override
+    public void claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        String column = (color == ChessGame.TeamColor.WHITE) ? "whiteUsername" : "blackUsername";
+        String sql = "UPDATE Games SET " + column + " = ?, version = version + 1 WHERE gameID = ? AND "
+                + column + " IS NULL";
 
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, game.getWhiteUsername());
-            stmt.setString(2, game.getBlackUsername());
-            stmt.setString(3, game.getGameName());
+            stmt.setString(1, username);
+            stmt.setInt(2, gameID);
+            if (stmt.executeUpdate() == 0) {
+                throw (missingOrConflict(conn, gameID) instanceof GameConflictException)
+                        ? GameDAO.seatTaken(color)
+                        : new DataAccessException("Game not found, id=" + gameID);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error claiming seat: " + e.getMessage());
+        }
+    }
 
-            String gameJson = gson.toJson(game.getChessGame());
-            stmt.setString(4, gameJson);
+    /**
+     * Tells apart the two reasons a conditional update touched no row.
+     */
+    private static DataAccessException missingOrConflict(Connection conn, int gameID) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM Games WHERE gameID = ?")) {
+            stmt.setInt(1, gameID);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next()
+                        ? new GameConflictException(gameID)
+                        : new DataAccessException("No game with ID " + gameID + " found to update.");
+            }
+        }
+    }
 
-            stmt.setInt(5, game.getGameID());
+    /**
+     * Writes the whole batch with one JDBC batch in a single transaction.
+     * Games deleted in the meantime are skipped rather than failing the batch.
+     */
+    @Override
+    public void updateGames(Collection<GameData> games) throws DataAccessException {
+        if (games.isEmpty()) {
+            return;
+        }
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                writeSnapshots(conn, games, null);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error updating games: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends the moves to GameMoves, rewriting the snapshot only when the moves
+     * cross a multiple of SNAPSHOT_INTERVAL. Re-recording a ply overwrites it,
+     * so replaying the same moves after a crash is harmless.
+     */
+    @Override
+    public void recordMoves(GameData game, int firstPly, List<ChessMove> moves) throws DataAccessException {
+        recordMoves(game, null, firstPly, moves);
+    }
 
-            int rows = stmt.executeUpdate();
-            if (rows == 0) {
-                throw new DataAccessException("No game with ID " + game.getGameID() + " found to update.");
+    /**
+     * recordMoves() guarded by the version bump: the game row is updated first,
+     * {@code WHERE version = ?}, so a lost race inserts no moves.
+     */
+    @Override
+    public void recordMovesIfVersion(GameData game, int expectedVersion, int firstPly, List<ChessMove> moves)
+            throws DataAccessException {
+        recordMoves(game, expectedVersion, firstPly, moves);
+    }
+
+    private void recordMoves(GameData game, Integer expectedVersion, int firstPly, List<ChessMove> moves)
+            throws DataAccessException {
+        if (moves.isEmpty()) {
+            if (expectedVersion != null) {
+                updateGameIfVersion(game, expectedVersion);
+            }
+            return;
+        }
+        String sql = """
+            INSERT INTO GameMoves (gameID, ply, move) VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE move = VALUES(move)
+            """;
+        int lastPly = firstPly + moves.size() - 1;
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int rows;
+                // Also snapshot a finished game so its gameOver column is current
+                if ((firstPly - 1) / SNAPSHOT_INTERVAL != lastPly / SNAPSHOT_INTERVAL || game.isFinished()) {
+                    rows = writeSnapshots(conn, List.of(game), expectedVersion)[0];
+                } else {
+                    String versionSql = "UPDATE Games SET version = ? WHERE gameID = ?"
+                            + ((expectedVersion != null) ? " AND version = ?" : "");
+                    try (PreparedStatement versionStmt = conn.prepareStatement(versionSql)) {
+                        versionStmt.setInt(1, game.getVersion());
+                        versionStmt.setInt(2, game.getGameID());
+                        if (expectedVersion != null) {
+                            versionStmt.setInt(3, expectedVersion);
+                        }
+                        rows = versionStmt.executeUpdate();
+                    }
+                }
+                if (rows == 0 && expectedVersion != null) {
+                    conn.rollback();
+                    throw missingOrConflict(conn, game.getGameID());
+                }
+
+                int ply = firstPly;
+                for (ChessMove move : moves) {
+                    stmt.setInt(1, game.getGameID());
+                    stmt.setInt(2, ply++);
+                    stmt.setString(3, move.toNotation());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
         } catch (SQLException e) {
-            throw new DataAccessException("Error updating game: " + e.getMessage());
+            throw new DataAccessException("Error recording moves: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes each game as its own snapshot and drops any logged moves past it,
+     * since those no longer describe this game (e.g. after a board reset).
+     *
+     * @param expectedVersion if not null, only rows still at this version are written
+     * @return rows updated per game
+     */
+    private int[] writeSnapshots(Connection conn, Collection<GameData> games, Integer expectedVersion)
+            throws SQLException {
+        String sql = """
+            UPDATE Games
+            SET whiteUsername = ?, blackUsername = ?, gameName = ?, gameJSON = ?, snapshotPly = ?, gameOver = ?, version = ?
+            WHERE gameID = ?
+            """ + ((expectedVersion != null) ? " AND version = ?" : "");
+        String trimSql = "DELETE FROM GameMoves WHERE gameID = ? AND ply > ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             PreparedStatement trim = conn.prepareStatement(trimSql)) {
+            for (GameData game : games) {
+                int ply = (game.getChessGame() == null) ? 0 : game.getChessGame().getPlyCount();
+                stmt.setString(1, game.getWhiteUsername());
+                stmt.setString(2, game.getBlackUsername());
+                stmt.setString(3, game.getGameName());
+                stmt.setString(4, gson.toJson(game.getChessGame()));
+                stmt.setInt(5, ply);
+                stmt.setBoolean(6, game.isFinished());
+                stmt.setInt(7, game.getVersion());
+                stmt.setInt(8, game.getGameID());
+                if (expectedVersion != null) {
+                    stmt.setInt(9, expectedVersion);
+                }
+                stmt.addBatch();
+                trim.setInt(1, game.getGameID());
+                trim.setInt(2, ply);
+                trim.addBatch();
+            }
+            int[] rows = stmt.executeBatch();
+            trim.executeBatch();
+            return rows;
         }
     }
 
     @Override
     public void clear() {
+        epoch = GameDAO.newEpoch();
         String sql = "DELETE FROM Games";
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -140,4 +635,9 @@ public class MySQLGameDAO implements GameDAO {
             System.out.println("Error clearing Games table: " + e.getMessage());
         }
     }
+
+    @Override
+    public String getEpoch() {
+        return epoch;
+    }
 }
\ No newline at end of file
@@ -2,10 +2,21 @@ package dataaccess;
 
 import model.UserData;
 import java.sql.*;
-import org.mindrot.jbcrypt.BCrypt; // If you want to do password hashing, otherwise remove
+import java.util.concurrent.CompletableFuture;
 
 public class MySQLUserDAO implements UserDAO {
 
+    // BCrypt runs here rather than on the request thread
+    private final PasswordHasher hasher;
+
+    public MySQLUserDAO() {
+        this(PasswordHasher.shared());
+    }
+
+    public MySQLUserDAO(PasswordHasher hasher) {
+        this.hasher = hasher;
+    }
+
     @Override
     public UserData getUser(String username) throws DataAccessException {
         String sql = "SELECT username, password, email FROM Users WHERE username = ?";
@@ -31,10 +42,15 @@ public class MySQLUserDAO implements UserDAO {
         return null;
     }
 
+    @Override
+    public CompletableFuture<UserData> getUserAsync(String username) {
+        return DatabaseManager.supplyAsync(() -> getUser(username));
+    }
+
     @Override
     public void createUser(UserData user) throws DataAccessException {
         // 1) Generate a salted hash of the user’s plain-text password
-        String hashedPW = BCrypt.hashpw(user.password(), BCrypt.gensalt());
+        String hashedPW = hasher.hash(user.password());
 
         // 2) Insert into the database
         String sql = "INSERT INTO Users (username, password, email) VALUES (?, ?, ?)";
@@ -61,7 +77,7 @@ public class MySQLUserDAO implements UserDAO {
 
         // storedUser.password() is the hashed password read from DB
         String hashedPW = storedUser.password();
-        return BCrypt.checkpw(plainPassword, hashedPW);
+        return hasher.check(plainPassword, hashedPW);
     }
 
     @Override
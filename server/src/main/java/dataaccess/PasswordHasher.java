@@ -0,0 +1,172 @@
+package dataaccess;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs BCrypt on a small dedicated pool instead of the request thread.
+ * <p>
+ * At most {@code threads} hashes run at once and at most {@code queueSize}
+ * wait; anything beyond that fails fast with {@link ServerBusyException}, so a
+ * login storm costs a bounded number of cores and leaves the rest of the
+ * server, and the HTTP threads, to game traffic.
+ */
+public class PasswordHasher implements AutoCloseable {
+
+    private static final int RETRY_AFTER_SECONDS = 1;
+
+    private final ThreadPoolExecutor executor;
+    private final int logRounds;
+
+    private final Stats hashStats = new Stats();
+    private final Stats checkStats = new Stats();
+    private final LongAdder rejected = new LongAdder();
+
+    public PasswordHasher(int threads, int queueSize, int logRounds) {
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), r -> {
+                    Thread t = new Thread(r, "bcrypt-" + count.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.logRounds = logRounds;
+    }
+
+    /**
+     * Half the cores (at least one thread), a queue of 64 and BCrypt's default cost.
+     */
+    public static PasswordHasher withDefaults() {
+        return new PasswordHasher(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 64, 10);
+    }
+
+    /**
+     * One withDefaults() hasher for the whole process, for callers that do not
+     * manage a hasher's lifecycle. Its daemon threads live as long as the JVM;
+     * do not close it.
+     */
+    public static PasswordHasher shared() {
+        return Shared.INSTANCE;
+    }
+
+    private static final class Shared {
+        static final PasswordHasher INSTANCE = withDefaults();
+    }
+
+    public String hash(String plainPassword) throws DataAccessException {
+        return run(hashStats, () -> BCrypt.hashpw(plainPassword, BCrypt.gensalt(logRounds)));
+    }
+
+    public boolean check(String plainPassword, String hashed) throws DataAccessException {
+        return run(checkStats, () -> BCrypt.checkpw(plainPassword, hashed));
+    }
+
+    private <T> T run(Stats stats, Callable<T> work) throws DataAccessException {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                try {
+                    return work.call();
+                } finally {
+                    stats.record(started - submitted, System.nanoTime() - started);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServerBusyException("Error: server busy, try again later", RETRY_AFTER_SECONDS);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new DataAccessException("Error: interrupted while hashing password");
+        } catch (ExecutionException e) {
+            throw new DataAccessException("Error hashing password: " + e.getCause().getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public Stats getHashStats() {
+        return hashStats;
+    }
+
+    public Stats getCheckStats() {
+        return checkStats;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PasswordHasher[active=%d, queued=%d, rejected=%d, hash=%s, check=%s]",
+                getActiveCount(), getQueuedCount(), getRejectedCount(), hashStats, checkStats);
+    }
+
+    /**
+     * Latency of one operation, split into time waiting for a thread and time hashing.
+     */
+    public static class Stats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAdder workNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long wait, long work) {
+            count.increment();
+            waitNanos.add(wait);
+            workNanos.add(work);
+            maxNanos.accumulateAndGet(wait + work, Math::max);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getAverageWaitMs() {
+            long n = count.sum();
+            return n == 0 ? 0 : waitNanos.sum() / 1e6 / n;
+        }
+
+        public double getAverageWorkMs() {
+            long n = count.sum();
+            return n == 0 ? 0 : workNanos.sum() / 1e6 / n;
+        }
+
+        public double getMaxMs() {
+            return maxNanos.get() / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("{n=%d, wait=%.1fms, work=%.1fms, max=%.1fms}",
+                    getCount(), getAverageWaitMs(), getAverageWorkMs(), getMaxMs());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package dataaccess;
+
+import chess.ChessMove;
+import model.GameData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What WriteBehindGameDAO still owes the database for one game: its latest
+ * state, the moves made since the last flush starting at ply firstPly, and
+ * whether anything besides moves changed (players, name, resignation) so the
+ * full game must be rewritten.
+ */
+final class PendingGameWrite {
+    final GameData game;
+    final int firstPly;
+    final List<ChessMove> moves;
+    final boolean snapshot;
+
+    PendingGameWrite(GameData game, int firstPly, List<ChessMove> moves, boolean snapshot) {
+        this.game = game;
+        this.firstPly = firstPly;
+        this.moves = moves;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Combines this write with a newer one for the same game.
+     */
+    PendingGameWrite then(PendingGameWrite newer) {
+        if (moves.isEmpty()) {
+            return new PendingGameWrite(newer.game, newer.firstPly, newer.moves, snapshot || newer.snapshot);
+        }
+        List<ChessMove> combined = new ArrayList<>(moves.size() + newer.moves.size());
+        combined.addAll(moves);
+        combined.addAll(newer.moves);
+        return new PendingGameWrite(newer.game, firstPly, combined, snapshot || newer.snapshot);
+    }
+}
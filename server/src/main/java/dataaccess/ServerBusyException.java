@@ -0,0 +1,18 @@
+package dataaccess;
+
+/**
+ * Indicates the server is shedding load; the request can be retried after
+ * retryAfterSeconds. Handlers answer it with 503 and a Retry-After header.
+ */
+public class ServerBusyException extends DataAccessException {
+    private final int retryAfterSeconds;
+
+    public ServerBusyException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,174 @@
+package dataaccess;
+
+import model.AuthData;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stateless auth tokens: each token carries its username, issue time, expiry and
+ * signing key ID, plus an HMAC-SHA256 of all of that, so getAuth() only has to
+ * check a signature and never touches the database. Any server holding the same
+ * keys can validate any other server's tokens.
+ * <p>
+ * Token layout, dot-separated: key ID, base64url username, issued-at ms,
+ * expires-at ms, base64url nonce, base64url signature over the first five parts.
+ * <p>
+ * Logout adds the token to an in-memory revocation list until it would have
+ * expired anyway; clear() revokes every token issued before it. Neither is
+ * shared between servers, so a revoked token stays valid elsewhere until expiry.
+ */
+public class SignedTokenAuthDAO implements AuthDAO {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64_DECODER = Base64.getUrlDecoder();
+
+    private final Map<String, SecretKeySpec> keys;
+    private final String signingKeyId;
+    private final long ttlMs;
+    private final SecureRandom random = new SecureRandom();
+    // Revoked token -> the time it expires and can be forgotten
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile long revokedBefore;
+
+    /**
+     * @param keys         key ID to secret; tokens signed with any of them verify
+     * @param signingKeyId the key new tokens are signed with
+     */
+    public SignedTokenAuthDAO(Map<String, byte[]> keys, String signingKeyId, long ttlMs) {
+        if (!keys.containsKey(signingKeyId)) {
+            throw new IllegalArgumentException("No signing key with ID " + signingKeyId);
+        }
+        Map<String, SecretKeySpec> specs = new LinkedHashMap<>();
+        keys.forEach((id, secret) -> {
+            if (id.isEmpty() || id.contains(".")) {
+                throw new IllegalArgumentException("Bad key ID: " + id);
+            }
+            specs.put(id, new SecretKeySpec(secret, ALGORITHM));
+        });
+        this.keys = Map.copyOf(specs);
+        this.signingKeyId = signingKeyId;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Parses {@code id:base64secret,id:base64secret,...}, the format of server.auth.signingKeys.
+     */
+    public static Map<String, byte[]> parseKeys(String spec) {
+        Map<String, byte[]> keys = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Signing keys must look like id:base64secret");
+            }
+            keys.put(parts[0].trim(), Base64.getDecoder().decode(parts[1].trim()));
+        }
+        return keys;
+    }
+
+    @Override
+    public String newToken(String username) throws DataAccessException {
+        // Never issue a token that an earlier clear() in this same millisecond already revokes
+        long now = Math.max(System.currentTimeMillis(), revokedBefore);
+        byte[] nonce = new byte[9];
+        random.nextBytes(nonce);
+        String payload = signingKeyId + "." + B64.encodeToString(username.getBytes(StandardCharsets.UTF_8))
+                + "." + now + "." + (now + ttlMs) + "." + B64.encodeToString(nonce);
+        return payload + "." + B64.encodeToString(sign(keys.get(signingKeyId), payload));
+    }
+
+    /**
+     * Nothing to store: the token is its own record. Only tokens this DAO can
+     * verify are accepted.
+     */
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        AuthData verified = verify(auth.authToken());
+        if (verified == null || !verified.username().equals(auth.username())) {
+            throw new DataAccessException("Error: auth token was not issued for " + auth.username());
+        }
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        return verify(authToken);
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        if (verify(authToken) == null) {
+            throw new DataAccessException("Invalid authentication token");
+        }
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        revoked.put(authToken, expiresAt(authToken));
+    }
+
+    /**
+     * Revokes every token issued so far.
+     */
+    @Override
+    public void clear() {
+        revokedBefore = System.currentTimeMillis() + 1;
+        revoked.clear();
+    }
+
+    public int getRevokedCount() {
+        return revoked.size();
+    }
+
+    /**
+     * @return the token's AuthData, or null if it is malformed, forged, expired or revoked
+     */
+    private AuthData verify(String token) throws DataAccessException {
+        if (token == null) {
+            return null;
+        }
+        String[] parts = token.split("\\.");
+        if (parts.length != 6) {
+            return null;
+        }
+        SecretKeySpec key = keys.get(parts[0]);
+        if (key == null) {
+            return null;
+        }
+        try {
+            byte[] expected = sign(key, token.substring(0, token.lastIndexOf('.')));
+            if (!MessageDigest.isEqual(expected, B64_DECODER.decode(parts[5]))) {
+                return null;
+            }
+            long issuedAt = Long.parseLong(parts[2]);
+            long expiresAt = Long.parseLong(parts[3]);
+            long now = System.currentTimeMillis();
+            if (expiresAt <= now || issuedAt < revokedBefore || revoked.containsKey(token)) {
+                return null;
+            }
+            return new AuthData(token, new String(B64_DECODER.decode(parts[1]), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long expiresAt(String token) {
+        return Long.parseLong(token.split("\\.")[3]);
+    }
+
+    private static byte[] sign(SecretKeySpec key, String payload) throws DataAccessException {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new DataAccessException("Error signing auth token: " + e.getMessage());
+        }
+    }
+}
@@ -2,9 +2,18 @@ package dataaccess;
 
 import model.UserData;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface UserDAO {
     UserData getUser(String username) throws DataAccessException;
     void createUser(UserData user) throws DataAccessException;
     boolean authenticateUser(String username, String password) throws DataAccessException;
     void clear();
+
+    /**
+     * getUser() without blocking the caller; by default it runs on the calling thread.
+     */
+    default CompletableFuture<UserData> getUserAsync(String username) {
+        return DataAccessFutures.completed(() -> getUser(username));
+    }
 }
\ No newline at end of file
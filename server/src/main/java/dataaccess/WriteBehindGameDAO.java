@@ -0,0 +1,442 @@
+package dataaccess;
+
+import chess.ChessMove;
+import com.google.gson.Gson;
+import model.GameData;
+import model.GameSummary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps live games in memory as the authoritative copy and persists them to the
+ * wrapped GameDAO in the background.
+ * <p>
+ * updateGame() and recordMoves() only touch memory and append to a local
+ * {@link GameJournal}, so moves are acknowledged at memory speed. Writes to the
+ * same game are coalesced until the next flush, which runs every flushIntervalMs
+ * or as soon as batchSize games are dirty. A flush records each game's pending
+ * moves with {@link GameDAO#recordMoves} and rewrites games that changed in other
+ * ways with one {@link GameDAO#updateGames} batch. Journal
+ * segments are deleted only after their games reach the database; anything left
+ * over after a crash is replayed into the database on the next start.
+ * <p>
+ * Games are copied on the way in and out, so callers never share the live
+ * instances and a caller's later changes cannot leak into memory unjournaled.
+ * <p>
+ * After each successful flush, clean games that are finished or have not been
+ * touched for idleEvictMs are dropped from memory and reloaded on next use.
+ */
+public class WriteBehindGameDAO implements GameDAO, AutoCloseable {
+    public static final long DEFAULT_IDLE_EVICT_MS = 300_000;
+    private static final Gson GSON = new Gson();
+
+    private final GameDAO delegate;
+    private final GameJournal journal;
+    private final int batchSize;
+    private final long idleEvictMs;
+    private final ConcurrentHashMap<Integer, GameData> live = new ConcurrentHashMap<>();
+    // When each live game was last read or written, for idle eviction
+    private final ConcurrentHashMap<Integer, Long> lastTouched = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, PendingGameWrite> dirty = new ConcurrentHashMap<>();
+    // Updates share the read lock; a flush takes the write lock just long enough to rotate the
+    // journal and drain the dirty set, so no update can land in a sealed segment unflushed.
+    private final ReentrantReadWriteLock rotationLock = new ReentrantReadWriteLock();
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService flusher;
+
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder gamesWritten = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public WriteBehindGameDAO(GameDAO delegate, Path journalDir, long flushIntervalMs, int batchSize,
+                              boolean syncEveryWrite) throws DataAccessException {
+        this(delegate, journalDir, flushIntervalMs, batchSize, syncEveryWrite, DEFAULT_IDLE_EVICT_MS);
+    }
+
+    public WriteBehindGameDAO(GameDAO delegate, Path journalDir, long flushIntervalMs, int batchSize,
+                              boolean syncEveryWrite, long idleEvictMs) throws DataAccessException {
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        this.idleEvictMs = idleEvictMs;
+        try {
+            this.journal = new GameJournal(journalDir, syncEveryWrite);
+            recover();
+        } catch (IOException e) {
+            throw new DataAccessException("Error opening game journal: " + e.getMessage());
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "game-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Replays journal segments left by a previous run into the database.
+     */
+    private void recover() throws IOException, DataAccessException {
+        Collection<PendingGameWrite> pending = journal.replay();
+        long sealed = journal.rotate();
+        if (!pending.isEmpty()) {
+            System.out.println("Recovering " + pending.size() + " unflushed game(s) from the journal");
+            writeThrough(pending);
+        }
+        journal.deleteThrough(sealed);
+    }
+
+    @Override
+    public int createGame(GameData game) throws DataAccessException {
+        // Creation needs the database-assigned ID, so it goes straight through
+        return delegate.createGame(game);
+    }
+
+    @Override
+    public List<Integer> createGames(List<GameData> games) throws DataAccessException {
+        return delegate.createGames(games);
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        return copy(load(gameID));
+    }
+
+    private GameData load(int gameID) throws DataAccessException {
+        GameData game = live.get(gameID);
+        if (game != null) {
+            touch(gameID);
+            return game;
+        }
+        GameData loaded = delegate.getGame(gameID);
+        GameData raced = live.putIfAbsent(gameID, loaded);
+        touch(gameID);
+        return (raced != null) ? raced : loaded;
+    }
+
+    @Override
+    public CompletableFuture<GameData> getGameAsync(int gameID) {
+        GameData game = live.get(gameID);
+        if (game != null) {
+            touch(gameID);
+            return CompletableFuture.completedFuture(copy(game));
+        }
+        return delegate.getGameAsync(gameID).thenApply(loaded -> {
+            GameData raced = live.putIfAbsent(gameID, loaded);
+            touch(gameID);
+            return copy((raced != null) ? raced : loaded);
+        });
+    }
+
+    /**
+     * Serves live games from memory and batch-reads the rest from the database
+     * without caching them, so a listing does not fill memory.
+     */
+    @Override
+    public List<GameData> getGames(List<Integer> gameIDs) throws DataAccessException {
+        Map<Integer, GameData> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (int gameID : gameIDs) {
+            GameData game = live.get(gameID);
+            if (game != null) {
+                found.put(gameID, copy(game));
+            } else {
+                missing.add(gameID);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (GameData stored : delegate.getGames(missing)) {
+                GameData game = live.get(stored.getGameID());
+                found.put(stored.getGameID(), (game != null) ? copy(game) : stored);
+            }
+        }
+        List<GameData> games = new ArrayList<>(found.size());
+        for (int gameID : gameIDs) {
+            GameData game = found.get(gameID);
+            if (game != null) {
+                games.add(game);
+            }
+        }
+        return games;
+    }
+
+    @Override
+    public List<GameData> listGames() throws DataAccessException {
+        List<GameData> games = new ArrayList<>();
+        for (GameData stored : delegate.listGames()) {
+            GameData game = live.get(stored.getGameID());
+            games.add((game != null) ? copy(game) : stored);
+        }
+        return games;
+    }
+
+    /**
+     * Filters run against the database, so a change not yet flushed can leave a
+     * game on a page it no longer matches until the next flush.
+     */
+    @Override
+    public List<GameSummary> listGameSummaries(GameQuery query) throws DataAccessException {
+        List<GameSummary> summaries = new ArrayList<>();
+        for (GameSummary stored : delegate.listGameSummaries(query)) {
+            GameData game = live.get(stored.gameID());
+            summaries.add((game != null) ? GameSummary.of(game) : stored);
+        }
+        return summaries;
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        write(new PendingGameWrite(copy(game), 0, List.of(), true), null);
+    }
+
+    @Override
+    public void recordMoves(GameData game, int firstPly, List<ChessMove> moves) throws DataAccessException {
+        write(new PendingGameWrite(copy(game), firstPly, List.copyOf(moves), false), null);
+    }
+
+    @Override
+    public void updateGameIfVersion(GameData game, int expectedVersion) throws DataAccessException {
+        write(new PendingGameWrite(copy(game), 0, List.of(), true), expectedVersion);
+    }
+
+    @Override
+    public void recordMovesIfVersion(GameData game, int expectedVersion, int firstPly, List<ChessMove> moves)
+            throws DataAccessException {
+        write(new PendingGameWrite(copy(game), firstPly, List.copyOf(moves), false), expectedVersion);
+    }
+
+    /**
+     * Applies a write to the live game, if it is still at expectedVersion when that is not null.
+     */
+    private void write(PendingGameWrite write, Integer expectedVersion) throws DataAccessException {
+        GameData game = write.game;
+        if (!live.containsKey(game.getGameID())) {
+            load(game.getGameID()); // throws if the game does not exist
+        }
+        touch(game.getGameID());
+        boolean[] conflict = new boolean[1];
+        rotationLock.readLock().lock();
+        try {
+            // The version check, journal append and swap happen together for this game
+            live.compute(game.getGameID(), (gameID, current) -> {
+                if (expectedVersion != null && (current == null || current.getVersion() != expectedVersion)) {
+                    conflict[0] = true;
+                    return current;
+                }
+                try {
+                    journal.append(write);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                dirty.merge(gameID, write, PendingGameWrite::then);
+                return game;
+            });
+        } catch (UncheckedIOException e) {
+            throw new DataAccessException("Error journaling game " + game.getGameID() + ": "
+                    + e.getCause().getMessage());
+        } finally {
+            rotationLock.readLock().unlock();
+        }
+        if (conflict[0]) {
+            throw new GameConflictException(game.getGameID());
+        }
+        updates.increment();
+        if (dirty.size() >= batchSize) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // Shutting down; close() flushes whatever is left
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (flushLock) {
+            rotationLock.writeLock().lock();
+            try {
+                dirty.clear();
+                live.clear();
+                lastTouched.clear();
+                journal.deleteThrough(journal.rotate());
+            } catch (IOException e) {
+                System.out.println("Error clearing game journal: " + e.getMessage());
+            } finally {
+                rotationLock.writeLock().unlock();
+            }
+            delegate.clear();
+        }
+    }
+
+    /**
+     * Writes every dirty game to the database in one batch.
+     */
+    public void flush() throws DataAccessException {
+        synchronized (flushLock) {
+            long sealed;
+            List<PendingGameWrite> batch = new ArrayList<>();
+            rotationLock.writeLock().lock();
+            try {
+                if (dirty.isEmpty()) {
+                    journal.force();
+                    sealed = -1;
+                } else {
+                    sealed = journal.rotate();
+                }
+                for (Integer gameID : dirty.keySet()) {
+                    PendingGameWrite write = dirty.remove(gameID);
+                    if (write != null) {
+                        batch.add(write);
+                    }
+                }
+            } catch (IOException e) {
+                throw new DataAccessException("Error rotating game journal: " + e.getMessage());
+            } finally {
+                rotationLock.writeLock().unlock();
+            }
+            if (sealed < 0) {
+                evictClean();
+                return;
+            }
+
+            try {
+                writeThrough(batch);
+            } catch (DataAccessException e) {
+                // Put them back ahead of anything newer; the sealed segments stay on disk.
+                // Moves that did reach the database are simply recorded again next time.
+                for (PendingGameWrite write : batch) {
+                    dirty.merge(write.game.getGameID(), write, (newer, failed) -> failed.then(newer));
+                }
+                flushFailures.increment();
+                throw e;
+            }
+            flushes.increment();
+            gamesWritten.add(batch.size());
+            try {
+                journal.deleteThrough(sealed);
+            } catch (IOException e) {
+                System.out.println("Error deleting flushed journal segments: " + e.getMessage());
+            }
+            evictClean();
+        }
+    }
+
+    /**
+     * Drops games with no pending writes that are finished or idle. The dirty
+     * check runs inside live's per-game lock, which write() also holds while
+     * marking a game dirty, so a game is never dropped with a write in flight.
+     */
+    private void evictClean() {
+        long cutoff = System.currentTimeMillis() - idleEvictMs;
+        for (Integer gameID : live.keySet()) {
+            live.computeIfPresent(gameID, (id, game) -> {
+                Long touched = lastTouched.get(id);
+                if (dirty.containsKey(id) || (!game.isFinished() && touched != null && touched >= cutoff)) {
+                    return game;
+                }
+                lastTouched.remove(id);
+                evictions.increment();
+                return null;
+            });
+        }
+        // A touch that lost a race with eviction leaves a stamp for a game no longer held
+        lastTouched.keySet().removeIf(id -> !live.containsKey(id));
+    }
+
+    private void touch(int gameID) {
+        lastTouched.put(gameID, System.currentTimeMillis());
+    }
+
+    private void writeThrough(Collection<PendingGameWrite> batch) throws DataAccessException {
+        List<GameData> snapshots = new ArrayList<>();
+        for (PendingGameWrite write : batch) {
+            if (!write.moves.isEmpty()) {
+                delegate.recordMoves(write.game, write.firstPly, write.moves);
+            }
+            if (write.snapshot) {
+                snapshots.add(write.game);
+            }
+        }
+        delegate.updateGames(snapshots);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (DataAccessException e) {
+            System.out.println("Write-behind flush failed, will retry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the background flusher and writes everything still pending.
+     */
+    @Override
+    public void close() throws DataAccessException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new DataAccessException("Error closing game journal: " + e.getMessage());
+        }
+    }
+
+    private static GameData copy(GameData game) {
+        return GSON.fromJson(GSON.toJson(game), GameData.class);
+    }
+
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    @Override
+    public String getEpoch() {
+        return delegate.getEpoch();
+    }
+
+    public int getLiveCount() {
+        return live.size();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getUpdateCount() {
+        return updates.sum();
+    }
+
+    public long getGamesWritten() {
+        return gamesWritten.sum();
+    }
+
+    public long getFlushCount() {
+        return flushes.sum();
+    }
+
+    public long getFlushFailureCount() {
+        return flushFailures.sum();
+    }
+}
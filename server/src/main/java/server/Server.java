@@ -2,22 +2,43 @@ package server;
 
 import com.google.gson.Gson;
 import dataaccess.AuthDAO;
+import dataaccess.CachingAuthDAO;
 import dataaccess.ClearDAO;
 import dataaccess.DataAccessException;
+import dataaccess.DatabaseManager;
+import dataaccess.FileAuthDAO;
+import dataaccess.FileGameDAO;
+import dataaccess.FileStore;
+import dataaccess.FileUserDAO;
 import dataaccess.GameDAO;
+import dataaccess.InMemoryAuthDAO;
+import dataaccess.InMemoryGameDAO;
+import dataaccess.InMemoryUserDAO;
 import dataaccess.MySQLAuthDAO;
 import dataaccess.MySQLGameDAO;
 import dataaccess.MySQLUserDAO;
+import dataaccess.PasswordHasher;
+import dataaccess.SignedTokenAuthDAO;
 import dataaccess.UserDAO;
+import dataaccess.WriteBehindGameDAO;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.eclipse.jetty.websocket.server.WebSocketHandler;
 import service.DatabaseService;
 import service.GameService;
 import service.UserService;
 import spark.Spark;
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
 import server.handlers.ClearHandler;
+import server.handlers.Backpressure;
+import server.handlers.GameActors;
 import server.handlers.GameHandler;
 import server.handlers.UserHandler;
 
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 public class Server {
@@ -36,41 +57,182 @@ public class Server {
     private final UserHandler userHandler;
     private final GameHandler gameHandler;
     private final ClearHandler clearHandler;
+    private final MyWebSocketHandler webSocketHandler;
 
+    // Resources to release on stop()
+    private final List<AutoCloseable> closeables = new ArrayList<>();
+
+    /**
+     * Runs against the stores selected by server.storage: mysql (the default),
+     * memory, or file for the embedded {@link FileStore} in server.fileStore.dir.
+     */
     public Server() {
-        try {
-            // Initialize the database
-            DatabaseManager.initDB();
-        } catch (DataAccessException e) {
-            e.printStackTrace();
-            throw new RuntimeException("Could not initialize database. Server cannot start.", e);
+        this(openStores());
+    }
+
+    private Server(Stores stores) {
+        this(stores.users(), stores.games(), stores.auth());
+        closeables.add(stores.hasher());
+        if (stores.resource() != null) {
+            closeables.add(stores.resource()); // last, after anything that writes to it
         }
+    }
 
+    /**
+     * Runs against the given stores instead of MySQL, e.g. in-memory DAOs for load tests.
+     */
+    public Server(UserDAO userDAO, GameDAO gameDAO, AuthDAO authDAO) {
         // Initialize DAO instances
-        this.userDAO = new MySQLUserDAO();
-        this.gameDAO = new MySQLGameDAO();
-        this.authDAO = new MySQLAuthDAO();
+        this.userDAO = userDAO;
+        this.gameDAO = createGameDAO(gameDAO);
+        this.authDAO = createAuthDAO(authDAO);
 
         // Create a ClearDAO instance
-        ClearDAO clearDAO = new ClearDAO(userDAO, gameDAO, authDAO);
+        ClearDAO clearDAO = new ClearDAO(userDAO, this.gameDAO, this.authDAO);
 
         // Initialize services
         this.databaseService = new DatabaseService(clearDAO);
-        this.userService = new UserService(userDAO, authDAO);
-        this.gameService = new GameService(gameDAO, authDAO);
+        this.userService = new UserService(userDAO, this.authDAO);
+        this.gameService = new GameService(this.gameDAO, this.authDAO);
 
         // Initialize handlers
         this.userHandler = new UserHandler(userService);
         this.gameHandler = new GameHandler(gameService);
         this.clearHandler = new ClearHandler(databaseService);
+        GameActors actors = new GameActors(ServerConfig.getLong("server.actors.idleTimeoutMs", 60_000));
+        closeables.add(0, actors); // stop game commands before the game store flushes
+        Backpressure backpressure = new Backpressure(ServerConfig.getInt("server.ws.maxQueuedFrames", 64),
+                Backpressure.Policy.valueOf(ServerConfig.get("server.ws.slowConsumerPolicy", "COALESCE").toUpperCase()));
+        this.webSocketHandler = new MyWebSocketHandler(gameService, actors, backpressure);
+    }
+
+    /**
+     * Creates the database and runs the schema migrations, then hands back the
+     * MySQL user store. Only the mysql storage touches MySQL at all.
+     */
+    private static UserDAO initDatabase(PasswordHasher hasher) {
+        try {
+            // Initialize the database
+            DatabaseManager.initDB();
+        } catch (DataAccessException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Could not initialize database. Server cannot start.", e);
+        }
+        return new MySQLUserDAO(hasher);
+    }
+
+    private record Stores(UserDAO users, GameDAO games, AuthDAO auth, PasswordHasher hasher,
+                          AutoCloseable resource) {
+    }
+
+    private static Stores openStores() {
+        String storage = ServerConfig.get("server.storage", "mysql");
+        PasswordHasher hasher = createPasswordHasher();
+        try {
+            return switch (storage.toLowerCase()) {
+                case "mysql" -> new Stores(initDatabase(hasher), new MySQLGameDAO(),
+                        new MySQLAuthDAO(ServerConfig.getLong("server.auth.tokenTtlMs", MySQLAuthDAO.DEFAULT_TTL_MS)),
+                        hasher, null);
+                case "memory" -> new Stores(new InMemoryUserDAO(hasher), new InMemoryGameDAO(),
+                        new InMemoryAuthDAO(), hasher, null);
+                case "file" -> openFileStore(hasher);
+                default -> throw new IllegalArgumentException(
+                        "server.storage must be mysql, memory or file, not " + storage);
+            };
+        } catch (RuntimeException | Error e) {
+            hasher.close(); // no Server will exist to close it
+            throw e;
+        }
+    }
+
+    private static Stores openFileStore(PasswordHasher hasher) {
+        try {
+            FileStore store = new FileStore(Path.of(ServerConfig.get("server.fileStore.dir", "data/store")),
+                    ServerConfig.getBoolean("server.fileStore.fsync", true),
+                    ServerConfig.getLong("server.fileStore.compactIntervalMs", 60_000));
+            return new Stores(new FileUserDAO(store, hasher), new FileGameDAO(store),
+                    new FileAuthDAO(store), hasher, store);
+        } catch (DataAccessException e) {
+            throw new RuntimeException("Could not open the file store. Server cannot start.", e);
+        }
+    }
+
+    private static PasswordHasher createPasswordHasher() {
+        return new PasswordHasher(
+                ServerConfig.getInt("server.bcrypt.threads", Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+                ServerConfig.getInt("server.bcrypt.queueSize", 64),
+                ServerConfig.getInt("server.bcrypt.logRounds", 10));
+    }
+
+    /**
+     * Puts the token cache in front of the auth store unless server.authCache.enabled is false,
+     * or replaces the store with signed tokens when server.auth.tokens=signed. A MySQL store
+     * also gets its expired-token sweeper started; stores that already answer from memory get no cache.
+     */
+    private AuthDAO createAuthDAO(AuthDAO store) {
+        if ("signed".equalsIgnoreCase(ServerConfig.get("server.auth.tokens", "opaque"))) {
+            return createSignedTokenDAO();
+        }
+        if (store instanceof MySQLAuthDAO mysql) {
+            mysql.startSweeper(ServerConfig.getLong("server.auth.sweepIntervalMs", 60_000),
+                    ServerConfig.getInt("server.auth.sweepBatchSize", 500));
+            closeables.add(mysql);
+        }
+        if (store instanceof InMemoryAuthDAO || store instanceof FileAuthDAO
+                || !ServerConfig.getBoolean("server.authCache.enabled", true)) {
+            return store;
+        }
+        return new CachingAuthDAO(store,
+                ServerConfig.getLong("server.authCache.ttlMs", 60_000),
+                ServerConfig.getLong("server.authCache.negativeTtlMs", 5_000),
+                ServerConfig.getInt("server.authCache.maxEntries", 100_000));
+    }
+
+    private static AuthDAO createSignedTokenDAO() {
+        String spec = ServerConfig.get("server.auth.signingKeys", null);
+        Map<String, byte[]> keys;
+        if (spec == null || spec.isBlank()) {
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            keys = Map.of("local", secret);
+            System.out.println("No server.auth.signingKeys set; signing with a random key, "
+                    + "so tokens die with this process and no other server accepts them.");
+        } else {
+            keys = SignedTokenAuthDAO.parseKeys(spec);
+        }
+        String signingKeyId = ServerConfig.get("server.auth.signingKeyId", keys.keySet().iterator().next());
+        return new SignedTokenAuthDAO(keys, signingKeyId,
+                ServerConfig.getLong("server.auth.tokenTtlMs", 24 * 60 * 60 * 1000L));
+    }
+
+    /**
+     * Wraps the game store in write-behind persistence when server.writeBehind.enabled is set.
+     */
+    private GameDAO createGameDAO(GameDAO store) {
+        if (!ServerConfig.getBoolean("server.writeBehind.enabled", false)) {
+            return store;
+        }
+        try {
+            WriteBehindGameDAO writeBehind = new WriteBehindGameDAO(store,
+                    Path.of(ServerConfig.get("server.writeBehind.journalDir", "data/journal")),
+                    ServerConfig.getLong("server.writeBehind.flushIntervalMs", 1000),
+                    ServerConfig.getInt("server.writeBehind.batchSize", 256),
+                    ServerConfig.getBoolean("server.writeBehind.syncEveryWrite", false),
+                    ServerConfig.getLong("server.writeBehind.idleEvictMs", WriteBehindGameDAO.DEFAULT_IDLE_EVICT_MS));
+            closeables.add(writeBehind);
+            return writeBehind;
+        } catch (DataAccessException e) {
+            throw new RuntimeException("Could not open the write-behind game store.", e);
+        }
     }
 
     public int run(int desiredPort) {
+        EmbeddedServers.add(EmbeddedServers.Identifiers.JETTY, createJettyFactory());
         Spark.port(desiredPort);
         Spark.staticFiles.location("resources/web");
 
         // 1) Define a WebSocket at /ws using MyWebSocketHandler
-        Spark.webSocket("/ws", server.MyWebSocketHandler.class);
+        Spark.webSocket("/ws", webSocketHandler);
 
         // 2) Global exception handler for DataAccessException
         Spark.exception(DataAccessException.class, (exception, req, res) -> {
@@ -85,8 +247,10 @@ public class Server {
         Spark.post("/session", userHandler.login);
         Spark.delete("/session", userHandler.logout);
         Spark.post("/game", gameHandler.createGame);
+        Spark.post("/game/bulk", gameHandler.createGames);
         Spark.put("/game", gameHandler.joinGame);
         Spark.get("/game", gameHandler.listGames);
+        Spark.get("/game/:id", gameHandler.getGame);
 
         // 4) Start Spark
         Spark.init();
@@ -94,14 +258,33 @@ public class Server {
         return Spark.port();
     }
 
+    /**
+     * With server.http.virtualThreads=true every request runs on its own virtual thread,
+     * so requests blocked on JDBC or BCrypt no longer tie up a small platform pool.
+     * server.http.maxThreads caps concurrent requests either way.
+     */
+    private static EmbeddedJettyFactory createJettyFactory() {
+        if (!ServerConfig.getBoolean("server.http.virtualThreads", false)) {
+            int maxThreads = ServerConfig.getInt("server.http.maxThreads", 200);
+            return new EmbeddedJettyFactory().withThreadPool(new QueuedThreadPool(maxThreads, 8, 60_000));
+        }
+        int maxThreads = ServerConfig.getInt("server.http.maxThreads", 10_000);
+        QueuedThreadPool pool = new QueuedThreadPool(maxThreads, 8, 60_000, -1, null, null,
+                Thread.ofVirtual().name("http-virtual-", 0).factory());
+        pool.setName("http-virtual");
+        pool.setDaemon(true); // virtual threads are always daemon; Jetty would otherwise try to clear it
+        return new EmbeddedJettyFactory().withThreadPool(pool);
+    }
+
     public void stop() {
         Spark.stop();
         Spark.awaitStop();
-    }
-
-    private static class DatabaseManager {
-        public static void initDB() throws DataAccessException {
-            // DB init code here
+        for (AutoCloseable closeable : closeables) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                System.out.println("Error during shutdown: " + e.getMessage());
+            }
         }
     }
 }
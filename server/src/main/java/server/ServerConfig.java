@@ -0,0 +1,42 @@
+package server;
+
+import java.util.Properties;
+
+/**
+ * Server options read from an optional server.properties on the classpath.
+ * Any key can be overridden with a JVM system property of the same name,
+ * e.g. -Dserver.writeBehind.enabled=true.
+ */
+public final class ServerConfig {
+    private static final Properties PROPS = new Properties();
+
+    static {
+        try (var propStream = Thread.currentThread().getContextClassLoader()
+                .getResourceAsStream("server.properties")) {
+            if (propStream != null) {
+                PROPS.load(propStream);
+            }
+        } catch (Exception ex) {
+            throw new RuntimeException("Unable to process server.properties. " + ex.getMessage());
+        }
+    }
+
+    private ServerConfig() {
+    }
+
+    public static String get(String key, String defaultValue) {
+        return System.getProperty(key, PROPS.getProperty(key, defaultValue));
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        return Boolean.parseBoolean(get(key, Boolean.toString(defaultValue)));
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        return Integer.parseInt(get(key, Integer.toString(defaultValue)));
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        return Long.parseLong(get(key, Long.toString(defaultValue)));
+    }
+}
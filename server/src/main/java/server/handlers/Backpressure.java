@@ -0,0 +1,78 @@
+package server.handlers;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits on each session's outbound queue and what to do with a session that
+ * cannot keep up, plus counters shared by every session using them.
+ * <p>
+ * COALESCE collapses the queued game states into the newest one as a full
+ * LOAD_GAME and, if notifications alone still fill the queue, drops the
+ * oldest of those. DISCONNECT closes the session instead.
+ */
+public class Backpressure {
+
+    public enum Policy {
+        COALESCE,
+        DISCONNECT
+    }
+
+    public static final Backpressure DEFAULT = new Backpressure(64, Policy.COALESCE);
+
+    private final int maxQueuedFrames;
+    private final Policy policy;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder disconnected = new LongAdder();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    public Backpressure(int maxQueuedFrames, Policy policy) {
+        if (maxQueuedFrames < 1) {
+            throw new IllegalArgumentException("maxQueuedFrames must be at least 1");
+        }
+        this.maxQueuedFrames = maxQueuedFrames;
+        this.policy = policy;
+    }
+
+    public int getMaxQueuedFrames() {
+        return maxQueuedFrames;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    void recordDepth(int depth) {
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    void recordDropped(int frames) {
+        dropped.add(frames);
+    }
+
+    void recordDisconnect() {
+        disconnected.increment();
+    }
+
+    /**
+     * Frames thrown away by coalescing, including ones cleared by a disconnect.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getDisconnectCount() {
+        return disconnected.sum();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Backpressure[policy=%s, maxQueued=%d, maxDepth=%d, dropped=%d, disconnected=%d]",
+                policy, maxQueuedFrames, getMaxQueueDepth(), getDroppedCount(), getDisconnectCount());
+    }
+}
@@ -0,0 +1,176 @@
+package server.handlers;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One single-writer mailbox per active game.
+ * <p>
+ * Work submitted for a game runs one task at a time, in submission order, on a
+ * virtual thread, so a game's ChessGame is only ever touched by one thread and
+ * needs no locks, while different games drain in parallel. An actor whose
+ * mailbox has been empty for idleTimeoutMs is evicted and recreated on demand.
+ */
+public class GameActors implements AutoCloseable {
+
+    private final ConcurrentHashMap<Integer, Actor> actors = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final ScheduledExecutorService sweeper;
+    private final long idleTimeoutMs;
+
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+
+    public GameActors(long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("game-actor-", 0).factory());
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "game-actor-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long sweepMs = Math.max(1, idleTimeoutMs / 2);
+        sweeper.scheduleWithFixedDelay(this::evictIdle, sweepMs, sweepMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues work for a game; it runs after everything already queued for that game.
+     */
+    public void submit(int gameID, Runnable task) {
+        // Enqueue inside compute() so eviction, which also goes through compute, never drops a task
+        Actor actor = actors.compute(gameID, (id, existing) -> {
+            Actor a = (existing != null) ? existing : new Actor(gameID);
+            a.enqueue(task);
+            return a;
+        });
+        actor.schedule();
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+        for (Integer gameID : actors.keySet()) {
+            actors.computeIfPresent(gameID, (id, actor) -> {
+                if (actor.isIdleSince(cutoff)) {
+                    evicted.increment();
+                    return null;
+                }
+                return actor;
+            });
+        }
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getActorCount() {
+        return actors.size();
+    }
+
+    /**
+     * Tasks waiting across every mailbox, not counting ones already running.
+     */
+    public int getQueuedCount() {
+        int queued = 0;
+        for (Actor actor : actors.values()) {
+            queued += actor.depth.get();
+        }
+        return queued;
+    }
+
+    /**
+     * Tasks waiting for one game, or 0 if it has no actor.
+     */
+    public int getMailboxDepth(int gameID) {
+        Actor actor = actors.get(gameID);
+        return (actor != null) ? actor.depth.get() : 0;
+    }
+
+    public int getMaxMailboxDepth() {
+        return maxDepth.get();
+    }
+
+    public long getProcessedCount() {
+        return processed.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GameActors[actors=%d, queued=%d, maxDepth=%d, processed=%d, failed=%d, evicted=%d]",
+                getActorCount(), getQueuedCount(), getMaxMailboxDepth(), getProcessedCount(), getFailedCount(),
+                getEvictedCount());
+    }
+
+    private final class Actor {
+        private final int gameID;
+        private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicBoolean running = new AtomicBoolean();
+        private volatile long lastActive = System.currentTimeMillis();
+
+        Actor(int gameID) {
+            this.gameID = gameID;
+        }
+
+        void enqueue(Runnable task) {
+            mailbox.add(task);
+            maxDepth.accumulateAndGet(depth.incrementAndGet(), Math::max);
+            lastActive = System.currentTimeMillis();
+        }
+
+        void schedule() {
+            if (running.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            Runnable task;
+            while ((task = mailbox.poll()) != null) {
+                depth.decrementAndGet();
+                try {
+                    task.run();
+                    processed.increment();
+                } catch (RuntimeException e) {
+                    failed.increment();
+                    System.out.println("Game " + gameID + " actor task failed: " + e);
+                }
+            }
+            lastActive = System.currentTimeMillis();
+            running.set(false);
+            // A task enqueued after the last poll but before running was cleared would otherwise wait forever
+            if (!mailbox.isEmpty()) {
+                schedule();
+            }
+        }
+
+        boolean isIdleSince(long cutoff) {
+            return !running.get() && mailbox.isEmpty() && lastActive < cutoff;
+        }
+    }
+}
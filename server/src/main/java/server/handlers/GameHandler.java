@@ -3,10 +3,13 @@ package server.handlers;
 import service.GameService;
 import com.google.gson.Gson;
 import dataaccess.DataAccessException;
+import dataaccess.GameNotFoundException;
+import dataaccess.GameQuery;
 import spark.Request;
 import spark.Response;
 import spark.Route;
 import model.GameData;
+import model.GameSummary;
 import java.util.List;
 
 public class GameHandler {
@@ -17,16 +20,77 @@ public class GameHandler {
         this.gameService = gameService;
     }
 
+    /**
+     * Lists one page of game metadata in gameID order. Query parameters:
+     * after (nextCursor of the previous page), limit (default 100, max 1000),
+     * openSeats=true, player=username, status=active|finished, and
+     * includeBoard=true to return full games instead of summaries.
+     */
     public Route listGames = (Request req, Response res) -> {
         var authToken = req.headers("authorization");
         if (authToken == null || authToken.trim().isEmpty()) {
             res.status(401);
             return gson.toJson(new ErrorResponse("Error: Invalid authentication token"));
         }
+        GameQuery query;
+        try {
+            query = parseQuery(req);
+        } catch (IllegalArgumentException e) {
+            res.status(400);
+            return gson.toJson(new ErrorResponse("Error: bad request, " + e.getMessage()));
+        }
+        try {
+            // Ask for one extra game to learn whether another page follows
+            List<GameSummary> page = gameService.listGameSummaries(authToken, query.withLimit(query.limit() + 1));
+            Integer nextCursor = null;
+            if (page.size() > query.limit()) {
+                page = page.subList(0, query.limit());
+                nextCursor = page.get(page.size() - 1).gameID();
+            }
+            boolean includeBoard = Boolean.parseBoolean(req.queryParams("includeBoard"));
+            List<?> games = includeBoard ? gameService.listGames(authToken, page) : page;
+            res.status(200);
+            return gson.toJson(new GamesWrapper(games, nextCursor));
+        } catch (DataAccessException e) {
+            setProperStatus(res, e.getMessage());
+            return gson.toJson(new ErrorResponse("Error: " + e.getMessage()));
+        }
+    };
+
+    /**
+     * Returns one game with a strong ETag of "epoch-gameID-version", where the
+     * epoch changes whenever the store is cleared. A request whose
+     * If-None-Match already names the current version, weak or strong, gets 304
+     * and no body.
+     */
+    public Route getGame = (Request req, Response res) -> {
+        var authToken = req.headers("authorization");
+        if (authToken == null || authToken.trim().isEmpty()) {
+            res.status(401);
+            return gson.toJson(new ErrorResponse("Error: Invalid authentication token"));
+        }
+        int gameID;
+        try {
+            gameID = Integer.parseInt(req.params(":id"));
+        } catch (NumberFormatException e) {
+            res.status(400);
+            return gson.toJson(new ErrorResponse("Error: bad request, gameID must be a number"));
+        }
         try {
-            List<GameData> games = gameService.listGames(authToken);
+            String epoch = gameService.getGameEpoch();
+            GameData game = gameService.getGame(authToken, gameID);
+            String etag = "\"" + epoch + "-" + game.getGameID() + "-" + game.getVersion() + "\"";
+            res.header("ETag", etag);
+            res.header("Cache-Control", "no-cache");
+            if (matchesETag(req.headers("If-None-Match"), etag)) {
+                res.status(304);
+                return "";
+            }
             res.status(200);
-            return gson.toJson(new GamesWrapper(games));
+            return gson.toJson(game);
+        } catch (GameNotFoundException e) {
+            res.status(404);
+            return gson.toJson(new ErrorResponse("Error: " + e.getMessage()));
         } catch (DataAccessException e) {
             setProperStatus(res, e.getMessage());
             return gson.toJson(new ErrorResponse("Error: " + e.getMessage()));
@@ -55,6 +119,31 @@ public class GameHandler {
         }
     };
 
+    /**
+     * Creates up to GameService.MAX_BULK_CREATE games from {"gameNames": [...]}
+     * in one batch and returns {"gameIDs": [...]} in the same order.
+     */
+    public Route createGames = (Request req, Response res) -> {
+        var authToken = req.headers("authorization");
+        if (authToken == null || authToken.trim().isEmpty()) {
+            res.status(401);
+            return gson.toJson(new ErrorResponse("Error: Invalid authentication token"));
+        }
+        BulkGameRequest bulkRequest = gson.fromJson(req.body(), BulkGameRequest.class);
+        if (bulkRequest == null || bulkRequest.gameNames == null || bulkRequest.gameNames.isEmpty()) {
+            res.status(400);
+            return gson.toJson(new ErrorResponse("Error: gameNames is required"));
+        }
+        try {
+            List<Integer> gameIDs = gameService.createGames(authToken, bulkRequest.gameNames);
+            res.status(200);
+            return gson.toJson(new BulkGameResponse(gameIDs));
+        } catch (DataAccessException e) {
+            setProperStatus(res, e.getMessage());
+            return gson.toJson(new ErrorResponse("Error: " + e.getMessage()));
+        }
+    };
+
     public Route joinGame = (Request req, Response res) -> {
         var authToken = req.headers("authorization");
         if (authToken == null || authToken.trim().isEmpty()) {
@@ -81,6 +170,43 @@ public class GameHandler {
         }
     };
 
+    private static boolean matchesETag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-None-Match uses weak comparison (RFC 7232), so W/"1-3" matches "1-3"
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private GameQuery parseQuery(Request req) {
+        String after = req.queryParams("after");
+        String limit = req.queryParams("limit");
+        String status = req.queryParams("status");
+        String player = req.queryParams("player");
+
+        int afterID = (after == null) ? 0 : Integer.parseInt(after);
+        int pageSize = (limit == null) ? GameQuery.DEFAULT_LIMIT : Integer.parseInt(limit);
+        if (pageSize < 1 || pageSize > GameQuery.MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + GameQuery.MAX_LIMIT);
+        }
+        return new GameQuery(
+                afterID,
+                pageSize,
+                Boolean.parseBoolean(req.queryParams("openSeats")),
+                (player == null || player.isBlank()) ? null : player,
+                (status == null) ? GameQuery.Status.ANY : GameQuery.Status.valueOf(status.toUpperCase())
+        );
+    }
+
     /**
      *  UPDATED method: Now checks for "auth token not found" as well,
      *  returning HTTP 401 in those cases.
@@ -98,6 +224,8 @@ public class GameHandler {
             res.status(401);
         } else if (lower.contains("already taken")) {
             res.status(403);
+        } else if (lower.contains("conflicting update")) {
+            res.status(409);
         } else {
             // default to 400 for everything else
             res.status(400);
@@ -105,11 +233,13 @@ public class GameHandler {
     }
 
     private static class GamesWrapper {
-        private List<GameData> games;
-        public GamesWrapper(List<GameData> games) {
+        private List<?> games;
+        private Integer nextCursor; // omitted on the last page
+        public GamesWrapper(List<?> games, Integer nextCursor) {
             this.games = games;
+            this.nextCursor = nextCursor;
         }
-        public List<GameData> getGames() {
+        public List<?> getGames() {
             return games;
         }
     }
@@ -121,6 +251,10 @@ public class GameHandler {
         }
     }
 
+    private static class BulkGameRequest {
+        private List<String> gameNames;
+    }
+
     private static class JoinGameRequest {
         private String playerColor;
         private int gameID;
@@ -145,4 +279,14 @@ public class GameHandler {
             return gameID;
         }
     }
+
+    public static class BulkGameResponse {
+        private List<Integer> gameIDs;
+        public BulkGameResponse(List<Integer> gameIDs) {
+            this.gameIDs = gameIDs;
+        }
+        public List<Integer> getGameIDs() {
+            return gameIDs;
+        }
+    }
 }
\ No newline at end of file
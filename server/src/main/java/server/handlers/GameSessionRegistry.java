@@ -0,0 +1,105 @@
+package server.handlers;
+
+import org.eclipse.jetty.websocket.api.Session;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The WebSocket sessions connected to each game.
+ * <p>
+ * Both maps are concurrent and a game's set is only touched inside compute(),
+ * so connects, leaves and broadcasts for different games never contend on a
+ * shared lock.
+ */
+public class GameSessionRegistry {
+    private final ConcurrentHashMap<Integer, Set<PlayerConnection>> byGame = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Session, PlayerConnection> bySession = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a connection, moving the session out of any game it was in before.
+     */
+    public void add(PlayerConnection connection) {
+        PlayerConnection previous = bySession.put(connection.session, connection);
+        if (previous != null) {
+            removeFromGame(previous);
+        }
+        byGame.compute(connection.gameID, (id, connections) -> {
+            Set<PlayerConnection> set = (connections != null) ? connections : ConcurrentHashMap.newKeySet();
+            set.add(connection);
+            return set;
+        });
+    }
+
+    /**
+     * @return the connection the session had, or null
+     */
+    public PlayerConnection remove(Session session) {
+        PlayerConnection connection = bySession.remove(session);
+        if (connection != null) {
+            removeFromGame(connection);
+        }
+        return connection;
+    }
+
+    public PlayerConnection get(Session session) {
+        return bySession.get(session);
+    }
+
+    public Collection<PlayerConnection> connections(int gameID) {
+        Set<PlayerConnection> connections = byGame.get(gameID);
+        return (connections != null) ? connections : List.of();
+    }
+
+    /**
+     * Sends to every session in the game except {@code exclude}, which may be
+     * null. Every session gets the same serialized frame.
+     */
+    public void broadcast(int gameID, OutboundFrame message, Session exclude) {
+        for (PlayerConnection connection : connections(gameID)) {
+            if (connection.session != exclude) {
+                connection.send(message);
+            }
+        }
+    }
+
+    /**
+     * Like {@link #broadcast(int, OutboundFrame, Session)}, but sessions that
+     * opted in to deltas get {@code delta} instead of {@code message}.
+     */
+    public void broadcast(int gameID, OutboundFrame message, OutboundFrame delta, Session exclude) {
+        for (PlayerConnection connection : connections(gameID)) {
+            if (connection.session != exclude) {
+                connection.send(connection.deltaUpdates ? delta : message);
+            }
+        }
+    }
+
+    public int getGameCount() {
+        return byGame.size();
+    }
+
+    public int getConnectionCount() {
+        return bySession.size();
+    }
+
+    /**
+     * Frames waiting in every session's outbound queue.
+     */
+    public int getQueuedFrameCount() {
+        int queued = 0;
+        for (PlayerConnection connection : bySession.values()) {
+            queued += connection.getQueueDepth();
+        }
+        return queued;
+    }
+
+    private void removeFromGame(PlayerConnection connection) {
+        byGame.computeIfPresent(connection.gameID, (id, connections) -> {
+            connections.remove(connection);
+            return connections.isEmpty() ? null : connections;
+        });
+    }
+}
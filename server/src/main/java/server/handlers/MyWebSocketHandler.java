@@ -1,36 +1,255 @@
 package server;
 
+import chess.ChessGame;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import dataaccess.DataAccessException;
+import model.AuthData;
+import model.GameData;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.*;
+import websocket.BinaryCodec;
+import server.handlers.Backpressure;
+import server.handlers.GameActors;
+import server.handlers.GameSessionRegistry;
+import server.handlers.OutboundFrame;
+import server.handlers.PlayerConnection;
+import service.GameService;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ServerMessage;
 
+import java.nio.ByteBuffer;
+
+/**
+ * Game hub behind /ws. Commands are applied through GameService, then the
+ * results fan out to everyone connected to the game: LOAD_GAME and
+ * NOTIFICATION to players and observers, ERROR only to the sender.
+ * <p>
+ * Sessions opened as {@code /ws?updates=delta} get a small MOVE message
+ * instead of the full LOAD_GAME after each move, and send RESYNC to get a
+ * LOAD_GAME again if a delta does not apply cleanly. Sessions opened as
+ * {@code /ws?protocol=binary} get {@link BinaryCodec} frames instead of JSON;
+ * binary commands are accepted from any session.
+ * <p>
+ * Each command runs on its game's {@link GameActors} mailbox, so commands for
+ * one game apply strictly in arrival order and Jetty's threads only parse.
+ */
 @WebSocket
 public class MyWebSocketHandler {
 
+    private final GameService gameService;
+    private final GameActors actors;
+    private final Backpressure backpressure;
+    private final GameSessionRegistry sessions = new GameSessionRegistry();
+    private final Gson gson = new Gson();
+
+    public MyWebSocketHandler(GameService gameService, GameActors actors) {
+        this(gameService, actors, Backpressure.DEFAULT);
+    }
+
+    public MyWebSocketHandler(GameService gameService, GameActors actors, Backpressure backpressure) {
+        this.gameService = gameService;
+        this.actors = actors;
+        this.backpressure = backpressure;
+    }
+
     @OnWebSocketConnect
     public void onConnect(Session session) {
-        System.out.println("WebSocket /ws connected: " + session);
+        System.out.println("WebSocket /ws connected: " + session.getRemoteAddress());
     }
 
     @OnWebSocketMessage
     public void onMessage(Session session, String message) {
-        System.out.println("WebSocket /ws received: " + message);
+        UserGameCommand command;
+        try {
+            command = gson.fromJson(message, UserGameCommand.class);
+        } catch (JsonParseException e) {
+            sendError(session, "Error: malformed command");
+            return;
+        }
+        submit(session, command);
+    }
 
-        // Send back the exact JSON the client sent:
+    @OnWebSocketMessage
+    public void onMessage(Session session, byte[] payload, int offset, int length) {
+        UserGameCommand command;
         try {
-            session.getRemote().sendString(message);
-        } catch (Exception e) {
-            e.printStackTrace();
+            command = BinaryCodec.decodeCommand(ByteBuffer.wrap(payload, offset, length));
+        } catch (IllegalArgumentException e) {
+            sendError(session, "Error: malformed command");
+            return;
         }
+        submit(session, command);
+    }
+
+    private void submit(Session session, UserGameCommand command) {
+        if (command == null || command.getCommandType() == null || command.getGameID() == null) {
+            sendError(session, "Error: commandType and gameID are required");
+            return;
+        }
+
+        actors.submit(command.getGameID(), () -> dispatch(session, command));
     }
 
+    private void dispatch(Session session, UserGameCommand command) {
+        try {
+            switch (command.getCommandType()) {
+                case CONNECT -> connect(session, command);
+                case MAKE_MOVE -> makeMove(session, command);
+                case LEAVE -> leave(session, command);
+                case RESIGN -> resign(session, command);
+                case RESYNC -> resync(session, command);
+            }
+        } catch (DataAccessException e) {
+            sendError(session, e.getMessage());
+        } catch (RuntimeException e) {
+            // Runs on a game actor, where an uncaught exception would leave the client waiting
+            System.out.println("WebSocket /ws " + command.getCommandType() + " failed: " + e);
+            sendError(session, "Error: " + e.getMessage());
+        }
+    }
 
     @OnWebSocketClose
     public void onClose(Session session, int statusCode, String reason) {
-        System.out.println("WebSocket /ws closed: " + reason);
+        sessions.remove(session);
     }
 
     @OnWebSocketError
     public void onError(Session session, Throwable error) {
         System.out.println("WebSocket /ws error: " + error.getMessage());
     }
-}
\ No newline at end of file
+
+    public GameSessionRegistry getSessions() {
+        return sessions;
+    }
+
+    public GameActors getActors() {
+        return actors;
+    }
+
+    public Backpressure getBackpressure() {
+        return backpressure;
+    }
+
+    private void connect(Session session, UserGameCommand command) throws DataAccessException {
+        GameService.AuthedGame opened = gameService.openGame(command.getAuthToken(), command.getGameID());
+        AuthData auth = opened.auth();
+        GameData game = opened.game();
+        ChessGame.TeamColor color = GameService.colorOf(game, auth.username());
+        String role = (color == null) ? "OBSERVER" : color.name();
+
+        sessions.add(new PlayerConnection(session, command.getAuthToken(), game.getGameID(), auth.username(), role,
+                backpressure));
+        reply(session, loadGame(game));
+        String joined = (color == null)
+                ? auth.username() + " is observing the game"
+                : auth.username() + " joined as " + role;
+        sessions.broadcast(game.getGameID(), notification(joined), session);
+    }
+
+    private void makeMove(Session session, UserGameCommand command) throws DataAccessException {
+        GameService.AuthedGame moved = gameService.makeMove(command.getAuthToken(), command.getGameID(),
+                command.move());
+        String username = moved.auth().username();
+        GameData game = moved.game();
+        int gameID = game.getGameID();
+
+        // Each frame is serialized once and the same bytes go to every session
+        OutboundFrame load = loadGame(game);
+        ChessGame chessGame = game.getChessGame();
+        OutboundFrame delta = new OutboundFrame(ServerMessage.move(command.move(), chessGame.positionHash(),
+                statusCode(chessGame), chessGame.getPlyCount()), load);
+        reply(session, PlayerConnection.wantsDeltas(session) ? delta : load);
+        sessions.broadcast(gameID, load, delta, session);
+        sessions.broadcast(gameID, notification(username + " moved " + command.move().toNotation()), session);
+
+        String status = statusOf(game);
+        if (status != null) {
+            OutboundFrame statusNotification = notification(status);
+            reply(session, statusNotification);
+            sessions.broadcast(gameID, statusNotification, session);
+        }
+    }
+
+    private void leave(Session session, UserGameCommand command) throws DataAccessException {
+        String username = gameService.leave(command.getAuthToken(), command.getGameID());
+        sessions.remove(session);
+        sessions.broadcast(command.getGameID(), notification(username + " left the game"), session);
+    }
+
+    private void resign(Session session, UserGameCommand command) throws DataAccessException {
+        GameData game = gameService.resign(command.getAuthToken(), command.getGameID());
+        String text = game.getResignedPlayer() + " resigned"
+                + (game.getWinner() != null ? ", " + game.getWinner() + " wins" : "");
+        OutboundFrame resigned = notification(text);
+        reply(session, resigned);
+        sessions.broadcast(game.getGameID(), resigned, session);
+    }
+
+    private void resync(Session session, UserGameCommand command) throws DataAccessException {
+        GameData game = gameService.getGame(command.getAuthToken(), command.getGameID());
+        if (game == null) {
+            throw new DataAccessException("Error: game not found");
+        }
+        reply(session, loadGame(game));
+    }
+
+    /**
+     * Sends to the session behind a command, through its outbound queue once it has connected.
+     */
+    private void reply(Session session, OutboundFrame frame) {
+        PlayerConnection connection = sessions.get(session);
+        if (connection != null) {
+            connection.send(frame);
+        } else {
+            PlayerConnection.send(session, frame);
+        }
+    }
+
+    /**
+     * The MOVE status of the side to move.
+     */
+    private static String statusCode(ChessGame chessGame) {
+        ChessGame.TeamColor toMove = chessGame.getTeamTurn();
+        if (chessGame.isInCheckmate(toMove)) {
+            return "CHECKMATE";
+        }
+        if (chessGame.isInStalemate(toMove)) {
+            return "STALEMATE";
+        }
+        return chessGame.isInCheck(toMove) ? "CHECK" : "ACTIVE";
+    }
+
+    /**
+     * Check, checkmate or stalemate of the side to move, or null if none.
+     */
+    private static String statusOf(GameData game) {
+        ChessGame chessGame = game.getChessGame();
+        ChessGame.TeamColor toMove = chessGame.getTeamTurn();
+        String player = (toMove == ChessGame.TeamColor.WHITE) ? game.getWhiteUsername() : game.getBlackUsername();
+        String who = (player != null) ? player + " (" + toMove + ")" : toMove.name();
+        if (chessGame.isInCheckmate(toMove)) {
+            return who + " is in checkmate";
+        }
+        if (chessGame.isInStalemate(toMove)) {
+            return who + " is in stalemate";
+        }
+        if (chessGame.isInCheck(toMove)) {
+            return who + " is in check";
+        }
+        return null;
+    }
+
+    private static OutboundFrame loadGame(GameData game) {
+        return new OutboundFrame(new ServerMessage(ServerMessage.ServerMessageType.LOAD_GAME, game));
+    }
+
+    private static OutboundFrame notification(String text) {
+        return new OutboundFrame(new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION, text));
+    }
+
+    private void sendError(Session session, String message) {
+        String text = (message != null && message.toLowerCase().contains("error")) ? message : "Error: " + message;
+        reply(session, new OutboundFrame(new ServerMessage(ServerMessage.ServerMessageType.ERROR, text)));
+    }
+}
@@ -0,0 +1,86 @@
+package server.handlers;
+
+import com.google.gson.Gson;
+import websocket.BinaryCodec;
+import websocket.messages.ServerMessage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A server message serialized at most once per wire format, no matter how many
+ * sessions it is sent to. Broadcasting a move to hundreds of observers costs
+ * one toJson() and one encode(), not one per observer.
+ */
+public final class OutboundFrame {
+
+    private static final Gson GSON = new Gson();
+
+    private final ServerMessage message;
+    private final OutboundFrame snapshot;
+    private volatile String json;
+    private volatile ByteBuffer binary;
+
+    public OutboundFrame(ServerMessage message) {
+        this(message, null);
+    }
+
+    /**
+     * @param snapshot for a MOVE, the LOAD_GAME of the position it leads to, which
+     *                 a backed-up session gets instead of the deltas it missed
+     */
+    public OutboundFrame(ServerMessage message, OutboundFrame snapshot) {
+        this.message = message;
+        this.snapshot = snapshot;
+    }
+
+    public ServerMessage getMessage() {
+        return message;
+    }
+
+    /**
+     * True for LOAD_GAME and MOVE, which a newer game state supersedes.
+     */
+    public boolean isGameState() {
+        ServerMessage.ServerMessageType type = message.getServerMessageType();
+        return type == ServerMessage.ServerMessageType.LOAD_GAME || type == ServerMessage.ServerMessageType.MOVE;
+    }
+
+    /**
+     * @return this frame as a full LOAD_GAME, or itself if there is none
+     */
+    public OutboundFrame asSnapshot() {
+        return (snapshot != null) ? snapshot : this;
+    }
+
+    public String json() {
+        String result = json;
+        if (result == null) {
+            synchronized (this) {
+                result = json;
+                if (result == null) {
+                    result = GSON.toJson(message);
+                    json = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a read-only view of the shared bytes with its own position, so
+     * each session's write can consume it independently
+     */
+    public ByteBuffer binary() {
+        ByteBuffer result = binary;
+        if (result == null) {
+            synchronized (this) {
+                result = binary;
+                if (result == null) {
+                    result = ByteBuffer.wrap(BinaryCodec.encode(message)).asReadOnlyBuffer();
+                    binary = result;
+                }
+            }
+        }
+        return result.duplicate();
+    }
+}
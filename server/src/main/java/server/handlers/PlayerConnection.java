@@ -1,11 +1,210 @@
 package server.handlers;
 
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import websocket.messages.ServerMessage;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
 /**
  * PlayerConnection: holds info about a user's web socket session
+ * <p>
+ * Frames go out one at a time through a bounded queue: the next write starts
+ * when the previous one completes, and a session whose queue fills up is
+ * handled by its {@link Backpressure} policy, so a slow observer costs a few
+ * queued frames rather than unbounded memory or the players' latency.
  */
 public class PlayerConnection {
+    public final Session session;
     public String authToken;
     public int gameID;
     public String username;  // once you figure it out from DB
     public String color;     // "WHITE", "BLACK", or "OBSERVER"
-}
\ No newline at end of file
+    public final boolean deltaUpdates;  // connected with ?updates=delta, gets MOVE instead of LOAD_GAME after moves
+    public final boolean binary;        // connected with ?protocol=binary, gets BinaryCodec frames
+
+    private final Backpressure backpressure;
+    private final Deque<OutboundFrame> outbound = new ArrayDeque<>();  // guarded by itself
+    private boolean writing;                                           // guarded by outbound
+
+    private static final WriteCallback LOG_FAILURES = new WriteCallback() {
+        @Override
+        public void writeFailed(Throwable error) {
+            System.out.println("WebSocket send failed: " + error.getMessage());
+        }
+
+        @Override
+        public void writeSuccess() {
+        }
+    };
+
+    public PlayerConnection(Session session, String authToken, int gameID, String username, String color) {
+        this(session, authToken, gameID, username, color, Backpressure.DEFAULT);
+    }
+
+    public PlayerConnection(Session session, String authToken, int gameID, String username, String color,
+                            Backpressure backpressure) {
+        this.session = session;
+        this.backpressure = backpressure;
+        this.authToken = authToken;
+        this.gameID = gameID;
+        this.username = username;
+        this.color = color;
+        this.deltaUpdates = wantsDeltas(session);
+        this.binary = wantsBinary(session);
+    }
+
+    /**
+     * Sessions opt in to MOVE deltas with {@code /ws?updates=delta}; everyone
+     * else keeps getting a full LOAD_GAME after every move.
+     */
+    public static boolean wantsDeltas(Session session) {
+        return hasParameter(session, "updates", "delta");
+    }
+
+    /**
+     * Sessions opened as {@code /ws?protocol=binary} get binary frames;
+     * everyone else gets JSON text.
+     */
+    public static boolean wantsBinary(Session session) {
+        return hasParameter(session, "protocol", "binary");
+    }
+
+    private static boolean hasParameter(Session session, String name, String value) {
+        if (session == null || session.getUpgradeRequest() == null) {
+            return false;
+        }
+        List<String> values = session.getUpgradeRequest().getParameterMap().get(name);
+        return values != null && values.contains(value);
+    }
+
+    /**
+     * Queues a message without waiting for it to be written, so one slow client
+     * never holds up the others.
+     */
+    public void send(OutboundFrame frame) {
+        if (!session.isOpen()) {
+            return;
+        }
+        OutboundFrame next;
+        synchronized (outbound) {
+            if (outbound.size() >= backpressure.getMaxQueuedFrames()) {
+                if (backpressure.getPolicy() == Backpressure.Policy.DISCONNECT) {
+                    disconnectLocked();
+                    return;
+                }
+                coalesceLocked(frame);
+            } else {
+                outbound.add(frame);
+            }
+            backpressure.recordDepth(outbound.size());
+            if (writing) {
+                return;
+            }
+            writing = true;
+            next = outbound.poll();
+        }
+        write(next);
+    }
+
+    /**
+     * Frames waiting behind the one being written.
+     */
+    public int getQueueDepth() {
+        synchronized (outbound) {
+            return outbound.size();
+        }
+    }
+
+    private void coalesceLocked(OutboundFrame frame) {
+        int before = outbound.size() + 1;
+        OutboundFrame latestState = frame.isGameState() ? frame : null;
+        for (Iterator<OutboundFrame> it = outbound.descendingIterator(); it.hasNext(); ) {
+            OutboundFrame queued = it.next();
+            if (queued.isGameState()) {
+                latestState = (latestState == null) ? queued : latestState;
+                it.remove();
+            }
+        }
+        // Still full of notifications alone: the oldest ones go
+        int room = backpressure.getMaxQueuedFrames() - (latestState != null ? 1 : 0) - (frame.isGameState() ? 0 : 1);
+        while (outbound.size() > Math.max(0, room)) {
+            outbound.poll();
+        }
+        if (latestState != null) {
+            outbound.add(latestState.asSnapshot());
+        }
+        if (!frame.isGameState()) {
+            outbound.add(frame);
+        }
+        backpressure.recordDropped(before - outbound.size());
+    }
+
+    private void disconnectLocked() {
+        backpressure.recordDropped(outbound.size() + 1);
+        backpressure.recordDisconnect();
+        outbound.clear();
+        System.out.println("Disconnecting slow WebSocket consumer " + username + " from game " + gameID);
+        session.close(StatusCode.POLICY_VIOLATION, "Slow consumer");
+    }
+
+    private void write(OutboundFrame frame) {
+        WriteCallback next = new WriteCallback() {
+            @Override
+            public void writeFailed(Throwable error) {
+                LOG_FAILURES.writeFailed(error);
+                writeNext();
+            }
+
+            @Override
+            public void writeSuccess() {
+                writeNext();
+            }
+        };
+        try {
+            if (binary) {
+                session.getRemote().sendBytes(frame.binary(), next);
+            } else {
+                session.getRemote().sendString(frame.json(), next);
+            }
+        } catch (RuntimeException e) {
+            next.writeFailed(e);
+        }
+    }
+
+    private void writeNext() {
+        OutboundFrame next;
+        synchronized (outbound) {
+            next = session.isOpen() ? outbound.poll() : null;
+            if (next == null) {
+                outbound.clear();
+                writing = false;
+                return;
+            }
+        }
+        write(next);
+    }
+
+    public static void send(Session session, OutboundFrame frame) {
+        send(session, frame, wantsBinary(session));
+    }
+
+    public static void send(Session session, ServerMessage message) {
+        send(session, new OutboundFrame(message));
+    }
+
+    private static void send(Session session, OutboundFrame frame, boolean binary) {
+        if (!session.isOpen()) {
+            return;
+        }
+        if (binary) {
+            session.getRemote().sendBytes(frame.binary(), LOG_FAILURES);
+        } else {
+            session.getRemote().sendString(frame.json(), LOG_FAILURES);
+        }
+    }
+}
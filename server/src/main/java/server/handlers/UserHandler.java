@@ -7,6 +7,7 @@ import spark.Response;
 import spark.Route;
 import com.google.gson.Gson;
 import dataaccess.DataAccessException;
+import dataaccess.ServerBusyException;
 
 public class UserHandler {
     private UserService userService;
@@ -28,6 +29,8 @@ public class UserHandler {
             var authData = userService.register(userData.username(), userData.password(), userData.email());
             res.status(200);  // Return 200 on successful registration
             return gson.toJson(authData);
+        } catch (ServerBusyException e) {
+            return busy(res, e);
         } catch (DataAccessException e) {
             if (e.getMessage().contains("User already exists")) {
                 res.status(403);  // Return 403 Forbidden when user already exists
@@ -50,12 +53,23 @@ public class UserHandler {
             var authData = userService.login(userData.username(), userData.password());
             res.status(200);
             return gson.toJson(authData);
+        } catch (ServerBusyException e) {
+            return busy(res, e);
         } catch (DataAccessException e) {
             res.status(401); // Unauthorized
             return gson.toJson(new ErrorResponse("Error: " + e.getMessage()));
         }
     };
 
+    /**
+     * 503 with Retry-After when password hashing is saturated.
+     */
+    private String busy(Response res, ServerBusyException e) {
+        res.status(503);
+        res.header("Retry-After", Integer.toString(e.getRetryAfterSeconds()));
+        return gson.toJson(new ErrorResponse(e.getMessage()));
+    }
+
     public Route logout = (Request req, Response res) -> {
         var authToken = req.headers("authorization");
 
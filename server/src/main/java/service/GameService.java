@@ -4,32 +4,110 @@ import chess.ChessGame;
 import chess.ChessMove;
 import dataaccess.AuthDAO;
 import dataaccess.DataAccessException;
+import dataaccess.DataAccessFutures;
+import dataaccess.GameConflictException;
 import dataaccess.GameDAO;
+import dataaccess.GameNotFoundException;
+import dataaccess.GameQuery;
 import model.AuthData;
 import model.GameData;
+import model.GameSummary;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
 
 public class GameService {
+    // Attempts per game change before a conflict is reported to the client
+    private static final int MAX_ATTEMPTS = 5;
+    // Games per createGames() call, which the DAOs write as one batch
+    public static final int MAX_BULK_CREATE = 1000;
+
     private final GameDAO gameDAO;
     private final AuthDAO authDAO;
 
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
     public GameService(GameDAO gameDAO, AuthDAO authDAO) {
         this.gameDAO = gameDAO;
         this.authDAO = authDAO;
     }
 
+    /**
+     * A game together with the user whose token was checked to load it.
+     */
+    public record AuthedGame(AuthData auth, GameData game) {
+    }
+
     private AuthData validateAuth(String authToken) throws DataAccessException {
-        AuthData authData = authDAO.getAuth(authToken);
+        return checkAuth(authDAO.getAuth(authToken));
+    }
+
+    private static AuthData checkAuth(AuthData authData) throws DataAccessException {
         if (authData == null) {
             throw new DataAccessException("Error: unauthorized");
         }
         return authData;
     }
 
-    public List<GameData> listGames(String authToken) throws DataAccessException {
+    /**
+     * Checks the token and loads the game at the same time. If both fail the
+     * auth failure is reported, as if the check had run first.
+     */
+    private AuthedGame authAndLoad(String authToken, int gameID) throws DataAccessException {
+        CompletableFuture<AuthData> auth = authDAO.getAuthAsync(authToken);
+        CompletableFuture<GameData> game = gameDAO.getGameAsync(gameID);
+        AuthData authData = checkAuth(DataAccessFutures.join(auth));
+        GameData loaded = DataAccessFutures.join(game);
+        if (loaded == null) {
+            throw new GameNotFoundException(gameID);
+        }
+        return new AuthedGame(authData, loaded);
+    }
+
+    /**
+     * Loads the full games behind an already listed page of summaries with one
+     * batch read, while the token is checked.
+     */
+    public List<GameData> listGames(String authToken, List<GameSummary> page) throws DataAccessException {
+        CompletableFuture<AuthData> auth = authDAO.getAuthAsync(authToken);
+        List<Integer> gameIDs = new ArrayList<>(page.size());
+        for (GameSummary summary : page) {
+            gameIDs.add(summary.gameID());
+        }
+        List<GameData> games = gameDAO.getGames(gameIDs);
+        checkAuth(DataAccessFutures.join(auth));
+        return games;
+    }
+
+    public GameData getGame(String authToken, int gameID) throws DataAccessException {
+        return authAndLoad(authToken, gameID).game();
+    }
+
+    /**
+     * The game store's current epoch; read it before loading a game so a
+     * clear() in between can only make the resulting tag stale, never reused.
+     */
+    public String getGameEpoch() {
+        return gameDAO.getEpoch();
+    }
+
+    /**
+     * getGame() that also returns the user it authenticated, so callers that
+     * need both check the token once.
+     */
+    public AuthedGame openGame(String authToken, int gameID) throws DataAccessException {
+        return authAndLoad(authToken, gameID);
+    }
+
+    public List<GameSummary> listGameSummaries(String authToken, GameQuery query) throws DataAccessException {
         validateAuth(authToken);
-        return gameDAO.listGames();
+        return gameDAO.listGameSummaries(query);
     }
 
     public int createGame(String authToken, String gameName) throws DataAccessException {
@@ -45,34 +123,52 @@ public class GameService {
         return gameDAO.createGame(newGame);
     }
 
-    public void joinGame(String authToken, String playerColor, int gameID) throws DataAccessException {
-        AuthData authData = validateAuth(authToken);
+    /**
+     * Creates a game per name in one storage round trip and returns their IDs
+     * in the same order. The games all start from one shared fresh board,
+     * which the DAOs copy or serialize, so it is built only once.
+     */
+    public List<Integer> createGames(String authToken, List<String> gameNames) throws DataAccessException {
+        validateAuth(authToken);
 
-        GameData game = gameDAO.getGame(gameID);
-        if (game == null) {
-            throw new DataAccessException("Game not found, id=" + gameID);
+        if (gameNames == null || gameNames.isEmpty()) {
+            throw new DataAccessException("Error: at least one game name is required");
         }
-
-        if (!playerColor.equalsIgnoreCase("WHITE") && !playerColor.equalsIgnoreCase("BLACK")) {
-            throw new DataAccessException("Error: bad request. Must join as WHITE or BLACK.");
+        if (gameNames.size() > MAX_BULK_CREATE) {
+            throw new DataAccessException("Error: at most " + MAX_BULK_CREATE + " games can be created at once");
         }
-
-        if (playerColor.equalsIgnoreCase("WHITE") && game.getWhiteUsername() != null) {
-            throw new DataAccessException("Error: WHITE seat is already taken");
+        Set<String> seen = new HashSet<>();
+        for (String gameName : gameNames) {
+            if (gameName == null || gameName.trim().isEmpty()) {
+                throw new DataAccessException("Error: game name is required");
+            }
+            if (!seen.add(gameName)) {
+                throw new DataAccessException("Error: duplicate game name " + gameName);
+            }
         }
-        if (playerColor.equalsIgnoreCase("BLACK") && game.getBlackUsername() != null) {
-            throw new DataAccessException("Error: BLACK seat is already taken");
+        ChessGame freshBoard = new ChessGame();
+        List<GameData> newGames = new ArrayList<>(gameNames.size());
+        for (String gameName : gameNames) {
+            GameData newGame = new GameData(0);
+            newGame.setGameName(gameName);
+            newGame.setChessGame(freshBoard);
+            newGames.add(newGame);
         }
+        return gameDAO.createGames(newGames);
+    }
 
-        // Update the game object directly with the player's username.
-        if (playerColor.equalsIgnoreCase("WHITE")) {
-            game.setWhiteUsername(authData.username());
-        } else {  // playerColor is BLACK
-            game.setBlackUsername(authData.username());
-        }
+    /**
+     * Seats the user behind authToken with a single conditional seat claim, so
+     * the game itself is never loaded and of two racing joins only one wins.
+     */
+    public void joinGame(String authToken, String playerColor, int gameID) throws DataAccessException {
+        AuthData authData = validateAuth(authToken);
 
-        // Update the game in the database.
-        gameDAO.updateGame(game);
+        if (!playerColor.equalsIgnoreCase("WHITE") && !playerColor.equalsIgnoreCase("BLACK")) {
+            throw new DataAccessException("Error: bad request. Must join as WHITE or BLACK.");
+        }
+        ChessGame.TeamColor color = ChessGame.TeamColor.valueOf(playerColor.toUpperCase());
+        gameDAO.claimSeat(gameID, color, authData.username());
     }
 
     public ChessGame loadGame(int gameID) throws DataAccessException {
@@ -84,23 +180,160 @@ public class GameService {
         return (data.getChessGame() == null) ? new ChessGame() : data.getChessGame();
     }
 
-    public void makeMove(int gameID, ChessMove move) throws DataAccessException {
-        ChessGame cg = loadGame(gameID);
+    /**
+     * Makes a move for the player behind authToken.
+     *
+     * @return the player who moved and the game after the move
+     */
+    public AuthedGame makeMove(String authToken, int gameID, ChessMove move) throws DataAccessException {
+        // One read and one write per move: the game data already carries the board.
+        return changeGame(authToken, gameID, (authData, existing) -> {
+            ChessGame.TeamColor color = colorOf(existing, authData.username());
+            if (color == null) {
+                throw new DataAccessException("Error: observers cannot make moves");
+            }
+            if (existing.isFinished()) {
+                throw new DataAccessException("Error: the game is over");
+            }
+            ChessGame cg = (existing.getChessGame() == null) ? new ChessGame() : existing.getChessGame();
+            if (cg.getTeamTurn() != color) {
+                throw new DataAccessException("Error: it is not your turn");
+            }
 
-        try {
-            cg.makeMove(move);
-        } catch (Exception e) {
-            throw new DataAccessException("Invalid move: " + e.getMessage());
-        }
+            try {
+                cg.makeMove(move);
+            } catch (Exception e) {
+                throw new DataAccessException("Error: invalid move " + (move == null ? "" : move.toNotation()));
+            }
 
-        // Retrieve the existing game data.
-        GameData existing = gameDAO.getGame(gameID);
-        if (existing == null) {
-            throw new DataAccessException("Game not found after move: " + gameID);
+            // Append the move rather than rewriting the whole game.
+            existing.setChessGame(cg);
+            int readVersion = existing.getVersion();
+            existing.setVersion(readVersion + 1);
+            gameDAO.recordMovesIfVersion(existing, readVersion, cg.getPlyCount(), List.of(move));
+            return new AuthedGame(authData, existing);
+        });
+    }
+
+    /**
+     * Resigns the game for the player behind authToken; the opponent wins.
+     *
+     * @return the finished game
+     */
+    public GameData resign(String authToken, int gameID) throws DataAccessException {
+        return changeGame(authToken, gameID, (authData, game) -> {
+            ChessGame.TeamColor color = colorOf(game, authData.username());
+            if (color == null) {
+                throw new DataAccessException("Error: observers cannot resign");
+            }
+            if (game.isFinished()) {
+                throw new DataAccessException("Error: the game is already over");
+            }
+            ChessGame cg = (game.getChessGame() == null) ? new ChessGame() : game.getChessGame();
+            cg.setResigned();
+            game.setChessGame(cg);
+            game.setGameOver(true);
+            game.setResignedPlayer(authData.username());
+            game.setWinner(color == ChessGame.TeamColor.WHITE ? game.getBlackUsername() : game.getWhiteUsername());
+            int readVersion = game.getVersion();
+            game.setVersion(readVersion + 1);
+            gameDAO.updateGameIfVersion(game, readVersion);
+            return game;
+        });
+    }
+
+    /**
+     * Takes the user behind authToken out of the game, freeing their seat if they had one.
+     *
+     * @return the username that left
+     */
+    public String leave(String authToken, int gameID) throws DataAccessException {
+        return changeGame(authToken, gameID, (authData, game) -> {
+            ChessGame.TeamColor color = colorOf(game, authData.username());
+            if (color != null) {
+                if (color == ChessGame.TeamColor.WHITE) {
+                    game.setWhiteUsername(null);
+                } else {
+                    game.setBlackUsername(null);
+                }
+                int readVersion = game.getVersion();
+                game.setVersion(readVersion + 1);
+                gameDAO.updateGameIfVersion(game, readVersion);
+            }
+            return authData.username();
+        });
+    }
+
+    /**
+     * A read-modify-write of one game: validates and changes the game as read,
+     * then writes it with a conditional DAO write against the version it was read at.
+     */
+    @FunctionalInterface
+    private interface GameChange<T> {
+        T apply(AuthData auth, GameData game) throws DataAccessException;
+    }
+
+    /**
+     * Runs change on the current game, reloading the game and running it again
+     * whenever the write loses a race, up to MAX_ATTEMPTS times in all.
+     */
+    private <T> T changeGame(String authToken, int gameID, GameChange<T> change) throws DataAccessException {
+        AuthedGame authed = authAndLoad(authToken, gameID);
+        GameData game = authed.game();
+        for (int attempt = 1; ; attempt++) {
+            attempts.increment();
+            try {
+                return change.apply(authed.auth(), game);
+            } catch (GameConflictException e) {
+                conflicts.increment();
+                if (attempt >= MAX_ATTEMPTS) {
+                    exhausted.increment();
+                    throw e;
+                }
+                game = gameDAO.getGame(gameID);
+            }
         }
+    }
+
+    /**
+     * Conditional game writes attempted, including retries.
+     */
+    public long getWriteAttemptCount() {
+        return attempts.sum();
+    }
 
-        // Update the chess game state in the existing game data.
-        existing.setChessGame(cg);
-        gameDAO.updateGame(existing);
+    public long getConflictCount() {
+        return conflicts.sum();
+    }
+
+    /**
+     * Changes that still conflicted after MAX_ATTEMPTS tries and failed.
+     */
+    public long getRetriesExhaustedCount() {
+        return exhausted.sum();
+    }
+
+    /**
+     * Fraction of conditional writes that lost a race.
+     */
+    public double getConflictRate() {
+        long total = attempts.sum();
+        return (total == 0) ? 0 : (double) conflicts.sum() / total;
+    }
+
+    /**
+     * @return the color username plays in the game, or null for an observer
+     */
+    public static ChessGame.TeamColor colorOf(GameData game, String username) {
+        if (username == null) {
+            return null;
+        }
+        if (username.equals(game.getWhiteUsername())) {
+            return ChessGame.TeamColor.WHITE;
+        }
+        if (username.equals(game.getBlackUsername())) {
+            return ChessGame.TeamColor.BLACK;
+        }
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -5,7 +5,6 @@ import dataaccess.UserDAO;
 import dataaccess.DataAccessException;
 import model.AuthData;
 import model.UserData;
-import java.util.UUID;
 
 public class UserService {
     private final UserDAO userDAO;
@@ -28,7 +27,7 @@ public class UserService {
         UserData newUser = new UserData(username, password, email);
         userDAO.createUser(newUser);
 
-        String authToken = UUID.randomUUID().toString();
+        String authToken = authDAO.newToken(username);
         AuthData authData = new AuthData(authToken, username);
         authDAO.createAuth(authData);
 
@@ -43,7 +42,7 @@ public class UserService {
             throw new DataAccessException("Error: unauthorized");
         }
 
-        String authToken = UUID.randomUUID().toString();
+        String authToken = authDAO.newToken(username);
         AuthData authData = new AuthData(authToken, username);
         authDAO.createAuth(authData);
 
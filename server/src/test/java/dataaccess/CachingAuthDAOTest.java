@@ -0,0 +1,99 @@
+package dataaccess;
+
+import model.AuthData;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingAuthDAOTest {
+
+    private static final long HOUR = 3_600_000;
+
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    @Test
+    void repeatedLookupsAreServedFromMemory() throws DataAccessException {
+        CachingAuthDAO authDAO = new CachingAuthDAO(countingStore(), HOUR, HOUR, 100);
+        authDAO.createAuth(new AuthData("token", "alice"));
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("alice", authDAO.getAuth("token").username());
+        }
+        assertEquals(0, lookups.get(), "A token just created should already be cached.");
+        assertEquals(1000, authDAO.getHitCount());
+    }
+
+    @Test
+    void unknownTokensAreCachedAsMissing() throws DataAccessException {
+        CachingAuthDAO authDAO = new CachingAuthDAO(countingStore(), HOUR, HOUR, 100);
+
+        assertNull(authDAO.getAuth("bogus"));
+        assertNull(authDAO.getAuth("bogus"));
+        assertEquals(1, lookups.get());
+        assertEquals(1, authDAO.getNegativeHitCount());
+
+        // A store that throws for unknown tokens keeps throwing the same error from the cache
+        CachingAuthDAO throwing = new CachingAuthDAO(new InMemoryAuthDAO() {
+            @Override
+            public AuthData getAuth(String authToken) throws DataAccessException {
+                lookups.incrementAndGet();
+                throw new DataAccessException("Auth token not found: " + authToken);
+            }
+        }, HOUR, HOUR, 100);
+        for (int i = 0; i < 2; i++) {
+            DataAccessException e = assertThrows(DataAccessException.class, () -> throwing.getAuth("bogus"));
+            assertEquals("Auth token not found: bogus", e.getMessage());
+        }
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void logoutInvalidatesImmediately() throws DataAccessException {
+        CachingAuthDAO authDAO = new CachingAuthDAO(countingStore(), HOUR, HOUR, 100);
+        authDAO.createAuth(new AuthData("token", "alice"));
+        assertNotNull(authDAO.getAuth("token"));
+
+        authDAO.deleteAuth("token");
+        assertNull(authDAO.getAuth("token"));
+
+        authDAO.createAuth(new AuthData("other", "bob"));
+        authDAO.clear();
+        assertNull(authDAO.getAuth("other"));
+    }
+
+    @Test
+    void asyncLookupsShareTheCache() throws Exception {
+        CachingAuthDAO authDAO = new CachingAuthDAO(countingStore(), HOUR, HOUR, 100);
+        countingStore().createAuth(new AuthData("token", "alice"));
+
+        assertNull(authDAO.getAuthAsync("token").get(), "The counting store starts empty.");
+        assertNull(authDAO.getAuthAsync("token").get());
+        assertEquals(1, lookups.get(), "The async miss should have been cached.");
+
+        authDAO.createAuth(new AuthData("fresh", "bob"));
+        assertEquals("bob", DataAccessFutures.join(authDAO.getAuthAsync("fresh")).username());
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void sizeIsBounded() throws DataAccessException {
+        CachingAuthDAO authDAO = new CachingAuthDAO(countingStore(), HOUR, HOUR, 10);
+        for (int i = 0; i < 100; i++) {
+            authDAO.createAuth(new AuthData("token" + i, "user" + i));
+        }
+        assertTrue(authDAO.getSize() <= 10, "Cache grew to " + authDAO.getSize());
+        assertEquals("user0", authDAO.getAuth("token0").username());
+    }
+
+    private AuthDAO countingStore() {
+        return new InMemoryAuthDAO() {
+            @Override
+            public AuthData getAuth(String authToken) throws DataAccessException {
+                lookups.incrementAndGet();
+                return super.getAuth(authToken);
+            }
+        };
+    }
+}
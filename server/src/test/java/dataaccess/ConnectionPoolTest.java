@@ -0,0 +1,77 @@
+package dataaccess;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest {
+
+    private final AtomicInteger opened = new AtomicInteger();
+    private ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void returnedConnectionsAreReused() throws SQLException {
+        pool = new ConnectionPool(config(0, 2, 1000), this::fakeConnection);
+
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+
+        assertEquals(1, opened.get(), "The second borrow should reuse the first physical connection.");
+        assertEquals(2, pool.getBorrowCount());
+        assertEquals(1, pool.getIdleConnections());
+    }
+
+    @Test
+    void borrowTimesOutWhenPoolIsExhausted() throws SQLException {
+        pool = new ConnectionPool(config(0, 1, 50), this::fakeConnection);
+
+        try (Connection ignored = pool.getConnection()) {
+            assertThrows(SQLException.class, () -> pool.getConnection(),
+                    "A second borrow from a pool of one should time out.");
+        }
+        assertEquals(1, pool.getTimeoutCount());
+    }
+
+    @Test
+    void closedLeaseCannotBeUsed() throws SQLException {
+        pool = new ConnectionPool(config(0, 1, 1000), this::fakeConnection);
+
+        Connection conn = pool.getConnection();
+        conn.close();
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, () -> conn.prepareStatement("SELECT 1"));
+        assertEquals(0, pool.getActiveConnections());
+    }
+
+    private static ConnectionPool.Config config(int min, int max, long timeoutMs) {
+        return new ConnectionPool.Config(min, max, timeoutMs, 1, 500, 0, 0);
+    }
+
+    private Connection fakeConnection() {
+        opened.incrementAndGet();
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "isClosed" -> false;
+                    case "getAutoCommit", "isValid" -> true;
+                    default -> null;
+                });
+    }
+}
@@ -0,0 +1,76 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.GameData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Times recordMoves() per move on a FileStore with and without fsync, and on
+ * MySQLGameDAO when a database is reachable.
+ * <pre>
+ * mvn -pl server test -Dtest=FileStoreBenchmark -Dchess.bench=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "chess.bench", matches = "true")
+public class FileStoreBenchmark {
+
+    private static final int GAMES = 50;
+    private static final List<String> OPENING = List.of("g1f3", "g8f6", "f3g1", "f6g8");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void perMoveWriteLatency() throws Exception {
+        try (FileStore store = new FileStore(dir.resolve("fsync"), true, 60_000)) {
+            report("file", time(new FileGameDAO(store)));
+        }
+        try (FileStore store = new FileStore(dir.resolve("nosync"), false, 60_000)) {
+            report("nosync", time(new FileGameDAO(store)));
+        }
+        try {
+            DatabaseManager.initDB();
+            MySQLGameDAO mysql = new MySQLGameDAO();
+            report("mysql", time(mysql));
+            mysql.clear();
+        } catch (DataAccessException | RuntimeException | ExceptionInInitializerError e) {
+            System.out.println("mysql    skipped: " + e);
+        }
+    }
+
+    /**
+     * Plays the knights back and forth in GAMES games, recording each move.
+     *
+     * @return sorted per-move latencies in microseconds
+     */
+    private static long[] time(GameDAO gameDAO) throws Exception {
+        long[] latencies = new long[GAMES * 40];
+        int n = 0;
+        for (int g = 0; g < GAMES; g++) {
+            int gameID = gameDAO.createGame(new GameData(0, "white", "black", "bench" + g, new ChessGame()));
+            GameData game = gameDAO.getGame(gameID);
+            for (int i = 0; i < 40; i++) {
+                ChessMove move = ChessMove.fromNotation(OPENING.get(i % OPENING.size()));
+                game.getChessGame().makeMove(move);
+                game.setVersion(game.getVersion() + 1);
+                long start = System.nanoTime();
+                gameDAO.recordMoves(game, game.getChessGame().getPlyCount(), List.of(move));
+                latencies[n++] = (System.nanoTime() - start) / 1000;
+            }
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void report(String label, long[] sorted) {
+        System.out.printf("%-8s %d moves: p50=%d us p99=%d us max=%d us%n", label, sorted.length,
+                sorted[sorted.length / 2], sorted[(int) (sorted.length * 0.99)], sorted[sorted.length - 1]);
+    }
+}
@@ -0,0 +1,154 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileStoreTest {
+
+    private static final long NEVER = 3_600_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void everythingAcknowledgedSurvivesAKillAndATornWrite() throws Exception {
+        FileStore killed = new FileStore(dir, true, NEVER);
+        FileGameDAO games = new FileGameDAO(killed);
+        FileAuthDAO tokens = new FileAuthDAO(killed);
+        int gameID = games.createGame(new GameData(0, "white", "black", "kept", new ChessGame()));
+        GameData game = games.getGame(gameID);
+        for (String move : List.of("e2e4", "e7e5", "g1f3")) {
+            game.getChessGame().makeMove(ChessMove.fromNotation(move));
+            game.setVersion(game.getVersion() + 1);
+            games.recordMoves(game, game.getChessGame().getPlyCount(), List.of(ChessMove.fromNotation(move)));
+        }
+        killed.createUser(new UserData("alice", "hash", "alice@example.com"));
+        tokens.createAuth(new AuthData("kept-token", "alice"));
+        tokens.createAuth(new AuthData("deleted-token", "alice"));
+        tokens.deleteAuth("deleted-token");
+        // No close: the process "dies" halfway through writing one more record
+        Files.writeString(onlyLog(), "{\"op\":\"game\",\"game\":{\"gam", StandardOpenOption.APPEND);
+
+        FileStore restarted = new FileStore(dir, true, NEVER);
+        GameData restored = restarted.getGame(gameID);
+        assertEquals("kept", restored.getGameName());
+        assertEquals(3, restored.getChessGame().getPlyCount());
+        assertEquals(ChessGame.TeamColor.BLACK, restored.getChessGame().getTeamTurn());
+        assertEquals(3, restored.getVersion());
+        assertNotNull(restarted.getUser("alice"));
+        assertNotNull(restarted.getAuth("kept-token"));
+        assertNull(restarted.getAuth("deleted-token"));
+        assertEquals(gameID + 1, new FileGameDAO(restarted).createGame(new GameData(0)),
+                "Game IDs should carry on after a restart.");
+        restarted.close();
+    }
+
+    @Test
+    void aCorruptRecordMidLogFailsStartupInsteadOfTruncating() throws Exception {
+        FileStore store = new FileStore(dir, false, NEVER);
+        FileGameDAO games = new FileGameDAO(store);
+        games.createGame(new GameData(0, null, null, "first", new ChessGame()));
+        games.createGame(new GameData(0, null, null, "second", new ChessGame()));
+        store.close();
+        List<String> lines = new ArrayList<>(Files.readAllLines(onlyLog(), StandardCharsets.UTF_8));
+        lines.add(1, "{\"op\":\"game\",\"game\":not json}");
+        Files.write(onlyLog(), lines, StandardCharsets.UTF_8);
+        long length = Files.size(onlyLog());
+
+        DataAccessException corrupt = assertThrows(DataAccessException.class,
+                () -> new FileStore(dir, false, NEVER));
+        assertTrue(corrupt.getMessage().contains("corrupt record"), corrupt.getMessage());
+        assertEquals(length, Files.size(onlyLog()), "The records after the bad one must not be cut off.");
+    }
+
+    @Test
+    void compactionRewritesTheLogAsLiveRecordsOnly() throws Exception {
+        FileStore store = new FileStore(dir, false, NEVER);
+        FileGameDAO games = new FileGameDAO(store);
+        int gameID = games.createGame(new GameData(0));
+        GameData game = games.getGame(gameID);
+        for (int i = 0; i < 100; i++) {
+            game.setGameName("name" + i);
+            games.updateGame(game);
+        }
+        new FileAuthDAO(store).createAuth(new AuthData("token", "alice"));
+        long generation = store.getGeneration();
+
+        store.compact();
+        assertEquals(generation + 1, store.getGeneration());
+        assertEquals(2, Files.readAllLines(onlyLog(), StandardCharsets.UTF_8).size());
+        game.setGameName("after");
+        games.updateGame(game);
+        store.close();
+
+        FileStore reopened = new FileStore(dir, false, NEVER);
+        assertEquals("after", reopened.getGame(gameID).getGameName());
+        assertNotNull(reopened.getAuth("token"));
+        reopened.close();
+    }
+
+    @Test
+    void seatClaimsAreLoggedAndReplayed() throws Exception {
+        FileStore store = new FileStore(dir, false, NEVER);
+        FileGameDAO games = new FileGameDAO(store);
+        int gameID = games.createGame(new GameData(0, null, null, "seats", new ChessGame()));
+        games.claimSeat(gameID, ChessGame.TeamColor.WHITE, "alice");
+        DataAccessException taken = assertThrows(DataAccessException.class,
+                () -> games.claimSeat(gameID, ChessGame.TeamColor.WHITE, "bob"));
+        assertTrue(taken.getMessage().contains("already taken"));
+        store.close();
+
+        FileStore reopened = new FileStore(dir, false, NEVER);
+        GameData game = reopened.getGame(gameID);
+        assertEquals("alice", game.getWhiteUsername());
+        assertNull(game.getBlackUsername());
+        assertEquals(1, game.getVersion());
+        reopened.close();
+    }
+
+    @Test
+    void concurrentWritersAllReachTheLog() throws Exception {
+        FileStore store = new FileStore(dir, true, NEVER);
+        FileGameDAO games = new FileGameDAO(store);
+        try (var writers = Executors.newFixedThreadPool(16)) {
+            List<Future<Integer>> created = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                created.add(writers.submit(() -> games.createGame(new GameData(0))));
+            }
+            for (Future<Integer> future : created) {
+                future.get();
+            }
+        }
+        assertTrue(store.getCommitCount() <= store.getRecordsWritten());
+        store.close();
+
+        FileStore reopened = new FileStore(dir, true, NEVER);
+        assertEquals(400, new FileGameDAO(reopened).listGames().size());
+        reopened.close();
+    }
+
+    private Path onlyLog() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> logs = files.filter(path -> path.toString().endsWith(".log")).toList();
+            assertEquals(1, logs.size(), "Exactly one log generation should be on disk.");
+            return logs.get(0);
+        }
+    }
+}
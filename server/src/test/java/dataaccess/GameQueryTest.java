@@ -0,0 +1,50 @@
+package dataaccess;
+
+import model.GameData;
+import model.GameSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameQueryTest {
+
+    private final GameDAO gameDAO = new InMemoryGameDAO();
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        for (int i = 1; i <= 5; i++) {
+            int gameID = gameDAO.createGame(new GameData(0));
+            GameData game = new GameData(gameID, (i % 2 == 0) ? "alice" : null, "bob", "game" + i, null);
+            game.setGameOver(i == 5);
+            gameDAO.updateGame(game);
+        }
+    }
+
+    @Test
+    void pagesFollowTheCursor() throws DataAccessException {
+        List<GameSummary> first = gameDAO.listGameSummaries(query(0, 2, false, null, GameQuery.Status.ANY));
+        List<GameSummary> second = gameDAO.listGameSummaries(query(first.get(1).gameID(), 2, false, null, GameQuery.Status.ANY));
+
+        assertEquals(List.of(1, 2), ids(first));
+        assertEquals(List.of(3, 4), ids(second));
+    }
+
+    @Test
+    void filtersCombine() throws DataAccessException {
+        assertEquals(List.of(1, 3, 5), ids(gameDAO.listGameSummaries(query(0, 10, true, null, GameQuery.Status.ANY))));
+        assertEquals(List.of(2, 4), ids(gameDAO.listGameSummaries(query(0, 10, false, "alice", GameQuery.Status.ANY))));
+        assertEquals(List.of(1, 3), ids(gameDAO.listGameSummaries(query(0, 10, true, null, GameQuery.Status.ACTIVE))));
+        assertEquals(List.of(5), ids(gameDAO.listGameSummaries(query(0, 10, false, "bob", GameQuery.Status.FINISHED))));
+    }
+
+    private static GameQuery query(int after, int limit, boolean openSeats, String player, GameQuery.Status status) {
+        return new GameQuery(after, limit, openSeats, player, status);
+    }
+
+    private static List<Integer> ids(List<GameSummary> games) {
+        return games.stream().map(GameSummary::gameID).toList();
+    }
+}
@@ -0,0 +1,96 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.GameData;
+import model.UserData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryDAOTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void gamesKeepTheirDataAndAreCopiedOnReadAndWrite() throws Exception {
+        InMemoryGameDAO gameDAO = new InMemoryGameDAO();
+        GameData game = new GameData(0);
+        game.setGameName("kept");
+        game.setChessGame(new ChessGame());
+        int gameID = gameDAO.createGame(game);
+
+        GameData stored = gameDAO.getGame(gameID);
+        assertEquals("kept", stored.getGameName());
+        assertNotNull(stored.getChessGame());
+
+        // Neither the caller's object nor a fetched copy is the stored game
+        game.setGameName("changed");
+        stored.getChessGame().makeMove(ChessMove.fromNotation("e2e4"));
+        assertEquals("kept", gameDAO.getGame(gameID).getGameName());
+        assertEquals(0, gameDAO.getGame(gameID).getChessGame().getPlyCount());
+
+        gameDAO.updateGame(stored);
+        assertEquals(1, gameDAO.getGame(gameID).getChessGame().getPlyCount());
+        assertThrows(DataAccessException.class, () -> gameDAO.updateGame(new GameData(gameID + 1)));
+    }
+
+    @Test
+    void conditionalWritesRejectStaleVersions() throws Exception {
+        for (GameDAO gameDAO : List.of(new InMemoryGameDAO(), new FileGameDAO(new FileStore(dir, false, 3_600_000)))) {
+            int gameID = gameDAO.createGame(new GameData(0));
+            GameData first = gameDAO.getGame(gameID);
+            GameData second = gameDAO.getGame(gameID);
+
+            first.setWhiteUsername("alice");
+            first.setVersion(1);
+            gameDAO.updateGameIfVersion(first, 0);
+
+            second.setWhiteUsername("bob");
+            second.setVersion(1);
+            assertThrows(GameConflictException.class, () -> gameDAO.updateGameIfVersion(second, 0));
+            assertEquals("alice", gameDAO.getGame(gameID).getWhiteUsername());
+            assertThrows(DataAccessException.class, () -> gameDAO.updateGameIfVersion(new GameData(gameID + 1), 0));
+        }
+    }
+
+    @Test
+    void concurrentWritersNeitherCollideNorLoseUpdates() throws Exception {
+        InMemoryGameDAO gameDAO = new InMemoryGameDAO();
+        InMemoryUserDAO userDAO = new InMemoryUserDAO();
+        Set<Integer> gameIDs = ConcurrentHashMap.newKeySet();
+        AtomicInteger registered = new AtomicInteger();
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                futures.add(executor.submit(() -> {
+                    gameIDs.add(gameDAO.createGame(new GameData(0)));
+                    try {
+                        userDAO.createUser(new UserData("same", "pw", "same@example.com"));
+                        registered.incrementAndGet();
+                    } catch (DataAccessException expected) {
+                        // Everyone but the first sees "User already exists"
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        assertEquals(2000, gameIDs.size(), "Every game should get its own ID.");
+        assertEquals(2000, gameDAO.listGames().size());
+        assertEquals(1, registered.get(), "Only one registration of a username should succeed.");
+    }
+}
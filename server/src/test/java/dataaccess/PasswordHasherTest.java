@@ -0,0 +1,51 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHasherTest {
+
+    @Test
+    void hashesAndChecksOffTheCallingThread() throws DataAccessException {
+        try (PasswordHasher hasher = new PasswordHasher(1, 4, 4)) {
+            String hashed = hasher.hash("secret");
+            assertTrue(hasher.check("secret", hashed));
+            assertFalse(hasher.check("wrong", hashed));
+            assertEquals(1, hasher.getHashStats().getCount());
+            assertEquals(2, hasher.getCheckStats().getCount());
+        }
+    }
+
+    @Test
+    void saturatedPoolRejectsInsteadOfQueueingForever() throws Exception {
+        try (PasswordHasher hasher = new PasswordHasher(1, 1, 14);
+             var callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            // One hash running and one queued fill the pool
+            CompletableFuture<?> running = CompletableFuture.runAsync(() -> hashQuietly(hasher), callers);
+            CompletableFuture<?> queued = CompletableFuture.runAsync(() -> hashQuietly(hasher), callers);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (hasher.getQueuedCount() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(1, hasher.getQueuedCount(), "The second hash should be waiting.");
+
+            ServerBusyException busy = assertThrows(ServerBusyException.class, () -> hasher.hash("third"));
+            assertTrue(busy.getRetryAfterSeconds() > 0);
+            assertEquals(1, hasher.getRejectedCount());
+            running.cancel(true);
+            queued.cancel(true);
+        }
+    }
+
+    private static void hashQuietly(PasswordHasher hasher) {
+        try {
+            hasher.hash("secret");
+        } catch (DataAccessException e) {
+            // the test only cares that the pool is busy
+        }
+    }
+}
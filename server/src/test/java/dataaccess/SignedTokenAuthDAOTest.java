@@ -0,0 +1,65 @@
+package dataaccess;
+
+import model.AuthData;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SignedTokenAuthDAOTest {
+
+    private static final long HOUR = 3_600_000;
+    private static final byte[] KEY_A = "first-secret-key-for-tests".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] KEY_B = "second-secret-key-for-tests".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void tokensVerifyOnAnyServerWithTheKeys() throws DataAccessException {
+        SignedTokenAuthDAO issuer = new SignedTokenAuthDAO(Map.of("a", KEY_A), "a", HOUR);
+        String token = issuer.newToken("alice.smith");
+        issuer.createAuth(new AuthData(token, "alice.smith"));
+
+        // A second node, already rotated to key b but still accepting a
+        SignedTokenAuthDAO otherNode = new SignedTokenAuthDAO(Map.of("a", KEY_A, "b", KEY_B), "b", HOUR);
+        assertEquals("alice.smith", otherNode.getAuth(token).username());
+        assertNotEquals(token, issuer.newToken("alice.smith"), "Each login should get a distinct token.");
+    }
+
+    @Test
+    void forgedExpiredAndUnknownKeyTokensAreRejected() throws DataAccessException {
+        SignedTokenAuthDAO authDAO = new SignedTokenAuthDAO(Map.of("a", KEY_A), "a", HOUR);
+        String token = authDAO.newToken("alice");
+        String[] parts = token.split("\\.");
+
+        String otherUser = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("mallory".getBytes(StandardCharsets.UTF_8));
+        assertNull(authDAO.getAuth(String.join(".", parts[0], otherUser, parts[2], parts[3], parts[4], parts[5])));
+        assertNull(authDAO.getAuth(token.replaceFirst("^a\\.", "z.")));
+        assertNull(authDAO.getAuth("not-a-token"));
+        assertNull(authDAO.getAuth(null));
+
+        SignedTokenAuthDAO expired = new SignedTokenAuthDAO(Map.of("a", KEY_A), "a", -1);
+        assertNull(expired.getAuth(expired.newToken("alice")));
+
+        assertNull(new SignedTokenAuthDAO(Map.of("a", KEY_B), "a", HOUR).getAuth(token),
+                "A token signed with another secret must not verify.");
+    }
+
+    @Test
+    void logoutAndClearRevokeTokens() throws DataAccessException {
+        SignedTokenAuthDAO authDAO = new SignedTokenAuthDAO(Map.of("a", KEY_A), "a", HOUR);
+        String first = authDAO.newToken("alice");
+        String second = authDAO.newToken("alice");
+
+        authDAO.deleteAuth(first);
+        assertNull(authDAO.getAuth(first));
+        assertNotNull(authDAO.getAuth(second));
+        assertThrows(DataAccessException.class, () -> authDAO.deleteAuth(first));
+
+        authDAO.clear();
+        assertNull(authDAO.getAuth(second));
+        assertNotNull(authDAO.getAuth(authDAO.newToken("alice")));
+    }
+}
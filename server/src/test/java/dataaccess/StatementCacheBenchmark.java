@@ -0,0 +1,94 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.AuthData;
+import model.GameData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts MySQL round trips for the getAuth / getGame / updateGame hot trio.
+ * <p>
+ * Needs a live database, so it only runs on request:
+ * <pre>
+ * mvn -pl server test -Dtest=StatementCacheBenchmark -Dchess.bench=true
+ * mvn -pl server test -Dtest=StatementCacheBenchmark -Dchess.bench=true -Ddb.cachePrepStmts=false -Ddb.useServerPrepStmts=false
+ * </pre>
+ * Compare the Com_stmt_prepare and Questions counts between the two runs.
+ */
+@EnabledIfSystemProperty(named = "chess.bench", matches = "true")
+public class StatementCacheBenchmark {
+
+    private static final int ITERATIONS = 2000;
+    private static final List<String> COUNTERS =
+            List.of("Questions", "Com_select", "Com_update", "Com_stmt_prepare", "Com_stmt_execute", "Com_stmt_close");
+
+    @Test
+    void hotTrioRoundTrips() throws Exception {
+        DatabaseManager.initDB();
+        MySQLAuthDAO authDAO = new MySQLAuthDAO();
+        MySQLGameDAO gameDAO = new MySQLGameDAO();
+        authDAO.clear();
+        gameDAO.clear();
+        authDAO.createAuth(new AuthData("bench-token", "bench"));
+        int gameID = gameDAO.createGame(new GameData(0, "white", "black", "bench", new ChessGame()));
+
+        // Warm up: every pooled connection prepares the trio once
+        runTrio(authDAO, gameDAO, gameID, 100);
+
+        Map<String, Long> before = serverCounters();
+        long start = System.nanoTime();
+        runTrio(authDAO, gameDAO, gameID, ITERATIONS);
+        long elapsed = System.nanoTime() - start;
+        Map<String, Long> after = serverCounters();
+
+        System.out.printf("cachePrepStmts=%s useServerPrepStmts=%s, %d iterations, %.1f us per trio%n",
+                System.getProperty("db.cachePrepStmts", "true"),
+                System.getProperty("db.useServerPrepStmts", "true"),
+                ITERATIONS, elapsed / 1000.0 / ITERATIONS);
+        for (String counter : COUNTERS) {
+            long delta = after.get(counter) - before.get(counter);
+            System.out.printf("  %-18s %8d total %8.2f per trio%n", counter, delta, (double) delta / ITERATIONS);
+        }
+        System.out.println("  " + DatabaseManager.getPool());
+
+        if (Boolean.parseBoolean(System.getProperty("db.cachePrepStmts", "true"))
+                && Boolean.parseBoolean(System.getProperty("db.useServerPrepStmts", "true"))) {
+            long prepares = after.get("Com_stmt_prepare") - before.get("Com_stmt_prepare");
+            assertTrue(prepares < ITERATIONS / 10,
+                    "With statement caching the trio should not be re-prepared per call, saw " + prepares);
+        }
+    }
+
+    private static void runTrio(MySQLAuthDAO authDAO, MySQLGameDAO gameDAO, int gameID, int iterations)
+            throws DataAccessException {
+        for (int i = 0; i < iterations; i++) {
+            authDAO.getAuth("bench-token");
+            GameData game = gameDAO.getGame(gameID);
+            gameDAO.updateGame(game);
+        }
+    }
+
+    private static Map<String, Long> serverCounters() throws Exception {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SHOW GLOBAL STATUS");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                if (COUNTERS.contains(rs.getString(1))) {
+                    counters.put(rs.getString(1), rs.getLong(2));
+                }
+            }
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,163 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.GameData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindGameDAOTest {
+
+    private static final long NEVER = 3_600_000;
+
+    @TempDir
+    Path journalDir;
+
+    private final AtomicInteger databaseWrites = new AtomicInteger();
+    private final List<String> recordedMoves = new ArrayList<>();
+
+    @Test
+    void updatesAreCoalescedUntilFlush() throws DataAccessException {
+        GameDAO database = countingDatabase();
+        int gameID = database.createGame(new GameData(0));
+        WriteBehindGameDAO gameDAO = new WriteBehindGameDAO(database, journalDir, NEVER, 1000, false);
+
+        GameData game = gameDAO.getGame(gameID);
+        for (int i = 0; i < 10; i++) {
+            game.setGameName("name" + i);
+            gameDAO.updateGame(game);
+        }
+        assertEquals(0, databaseWrites.get(), "Updates should not reach the database before a flush.");
+        assertEquals("name9", gameDAO.getGame(gameID).getGameName());
+
+        gameDAO.flush();
+        assertEquals(1, databaseWrites.get(), "Ten updates to one game should flush as one write.");
+        gameDAO.close();
+    }
+
+    @Test
+    void journalIsReplayedAfterCrash() throws DataAccessException {
+        GameDAO database = countingDatabase();
+        int gameID = database.createGame(new GameData(0));
+        WriteBehindGameDAO crashed = new WriteBehindGameDAO(database, journalDir, NEVER, 1000, false);
+
+        GameData game = crashed.getGame(gameID);
+        game.setWhiteUsername("alice");
+        game.setChessGame(new ChessGame());
+        crashed.updateGame(game);
+        // No flush or close: the process "dies" here
+
+        GameData restored = database.getGame(gameID);
+        restored.setWhiteUsername(null);
+        WriteBehindGameDAO restarted = new WriteBehindGameDAO(database, journalDir, NEVER, 1000, false);
+        assertEquals("alice", database.getGame(gameID).getWhiteUsername(),
+                "Recovery should write the journaled update to the database.");
+        restarted.close();
+    }
+
+    @Test
+    void movesAreRecordedInOrderAcrossFlushesAndCrashes() throws Exception {
+        GameDAO database = countingDatabase();
+        int gameID = database.createGame(new GameData(0));
+        WriteBehindGameDAO crashed = new WriteBehindGameDAO(database, journalDir, NEVER, 1000, false);
+
+        GameData game = crashed.getGame(gameID);
+        game.setChessGame(new ChessGame());
+        for (String notation : List.of("e2e4", "e7e5", "g1f3")) {
+            game.getChessGame().makeMove(ChessMove.fromNotation(notation));
+            crashed.recordMoves(game, game.getChessGame().getPlyCount(), List.of(ChessMove.fromNotation(notation)));
+        }
+        crashed.flush();
+        assertEquals(List.of("1:e2e4", "2:e7e5", "3:g1f3"), recordedMoves,
+                "Coalesced moves should reach the database in one call with their plies.");
+
+        game.getChessGame().makeMove(ChessMove.fromNotation("b8c6"));
+        crashed.recordMoves(game, 4, List.of(ChessMove.fromNotation("b8c6")));
+        // No flush or close: the process "dies" here
+
+        WriteBehindGameDAO restarted = new WriteBehindGameDAO(database, journalDir, NEVER, 1000, false);
+        assertEquals("4:b8c6", recordedMoves.get(recordedMoves.size() - 1),
+                "Recovery should record the journaled move.");
+        assertEquals(2, databaseWrites.get(), "Each flush and the recovery write the game once.");
+        restarted.close();
+    }
+
+    @Test
+    void cleanGamesAreEvictedOnceFinishedOrIdle() throws Exception {
+        GameDAO database = countingDatabase();
+        int activeID = database.createGame(new GameData(0));
+        int finishedID = database.createGame(new GameData(0));
+        WriteBehindGameDAO gameDAO = new WriteBehindGameDAO(database, journalDir, NEVER, 1000, false, NEVER);
+
+        GameData active = gameDAO.getGame(activeID);
+        active.setGameName("active");
+        gameDAO.updateGame(active);
+        GameData finished = gameDAO.getGame(finishedID);
+        finished.setGameName("finished");
+        finished.setGameOver(true);
+        gameDAO.updateGame(finished);
+        assertEquals(2, gameDAO.getLiveCount());
+
+        gameDAO.flush();
+        assertEquals(1, gameDAO.getLiveCount(), "A finished game should leave memory once it is flushed.");
+        assertEquals("finished", gameDAO.getGame(finishedID).getGameName(), "It reloads from the database.");
+        gameDAO.close();
+
+        WriteBehindGameDAO idle = new WriteBehindGameDAO(database, journalDir, NEVER, 1000, false, 1);
+        idle.getGame(activeID);
+        Thread.sleep(5);
+        idle.flush();
+        assertEquals(0, idle.getLiveCount(), "A game nobody touched for idleEvictMs should be dropped.");
+        assertEquals(1, idle.getEvictionCount());
+        idle.close();
+    }
+
+    @Test
+    void batchReadsMixLiveAndStoredGamesWithoutCachingThem() throws DataAccessException {
+        GameDAO database = countingDatabase();
+        int liveID = database.createGame(new GameData(0));
+        int storedID = database.createGame(new GameData(0));
+        WriteBehindGameDAO gameDAO = new WriteBehindGameDAO(database, journalDir, NEVER, 1000, false);
+
+        GameData live = gameDAO.getGame(liveID);
+        live.setGameName("unflushed");
+        gameDAO.updateGame(live);
+
+        List<GameData> games = gameDAO.getGames(List.of(storedID, 999, liveID));
+        assertEquals(List.of(storedID, liveID), games.stream().map(GameData::getGameID).toList(),
+                "Games come back in request order, without unknown IDs.");
+        assertEquals("unflushed", games.get(1).getGameName());
+        assertEquals(1, gameDAO.getLiveCount(), "A batch read should not pull games into memory.");
+        gameDAO.close();
+    }
+
+    private GameDAO countingDatabase() {
+        return new InMemoryGameDAO() {
+            @Override
+            public void updateGame(GameData game) throws DataAccessException {
+                databaseWrites.incrementAndGet();
+                super.updateGame(copy(game));
+            }
+
+            @Override
+            public void recordMoves(GameData game, int firstPly, List<ChessMove> moves) throws DataAccessException {
+                for (int i = 0; i < moves.size(); i++) {
+                    recordedMoves.add((firstPly + i) + ":" + moves.get(i).toNotation());
+                }
+                super.recordMoves(game, firstPly, moves);
+            }
+        };
+    }
+
+    private static GameData copy(GameData game) {
+        return new GameData(game.getGameID(), game.getWhiteUsername(), game.getBlackUsername(),
+                game.getGameName(), game.getChessGame());
+    }
+}
@@ -0,0 +1,214 @@
+package server;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import com.google.gson.Gson;
+import dataaccess.InMemoryAuthDAO;
+import dataaccess.InMemoryGameDAO;
+import model.AuthData;
+import model.GameData;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import server.handlers.GameActors;
+import service.GameService;
+import spark.Spark;
+import websocket.BinaryCodec;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ServerMessage;
+
+import javax.websocket.ContainerProvider;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.MessageHandler;
+import javax.websocket.Session;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static websocket.messages.ServerMessage.ServerMessageType.*;
+
+public class MyWebSocketHandlerTest {
+
+    private static final Gson GSON = new Gson();
+    private static int port;
+    private static int gameID;
+    private static int deltaGameID;
+
+    @BeforeAll
+    static void startHub() throws Exception {
+        InMemoryAuthDAO authDAO = new InMemoryAuthDAO();
+        InMemoryGameDAO gameDAO = new InMemoryGameDAO();
+        authDAO.createAuth(new AuthData("white-token", "white"));
+        authDAO.createAuth(new AuthData("black-token", "black"));
+        authDAO.createAuth(new AuthData("observer-token", "observer"));
+        gameID = gameDAO.createGame(new GameData(0));
+        gameDAO.updateGame(new GameData(gameID, "white", "black", "hub", null));
+        deltaGameID = gameDAO.createGame(new GameData(0));
+        gameDAO.updateGame(new GameData(deltaGameID, "white", "black", "delta", new ChessGame()));
+
+        Spark.port(0);
+        Spark.webSocket("/ws", new MyWebSocketHandler(new GameService(gameDAO, authDAO), new GameActors(60_000)));
+        Spark.get("/", (req, res) -> "");
+        Spark.init();
+        Spark.awaitInitialization();
+        port = Spark.port();
+    }
+
+    @AfterAll
+    static void stopHub() {
+        Spark.stop();
+        Spark.awaitStop();
+    }
+
+    @Test
+    void commandsFanOutToPlayersAndObservers() throws Exception {
+        Client white = new Client();
+        Client black = new Client();
+        Client observer = new Client();
+
+        white.send(new UserGameCommand(UserGameCommand.CommandType.CONNECT, "white-token", gameID));
+        assertEquals(List.of(LOAD_GAME), white.receive(1));
+        black.send(new UserGameCommand(UserGameCommand.CommandType.CONNECT, "black-token", gameID));
+        assertEquals(List.of(LOAD_GAME), black.receive(1));
+        assertEquals(List.of(NOTIFICATION), white.receive(1));
+        observer.send(new UserGameCommand(UserGameCommand.CommandType.CONNECT, "observer-token", gameID));
+        observer.receive(1);
+        white.receive(1);
+        black.receive(1);
+
+        white.send(new UserGameCommand(UserGameCommand.CommandType.MAKE_MOVE, "white-token", gameID,
+                ChessMove.fromNotation("e2e4")));
+        assertEquals(List.of(LOAD_GAME), white.receive(1));
+        assertEquals(List.of(LOAD_GAME, NOTIFICATION), black.receive(2));
+        assertEquals(List.of(LOAD_GAME, NOTIFICATION), observer.receive(2));
+
+        // Out of turn: only the sender hears about it
+        white.send(new UserGameCommand(UserGameCommand.CommandType.MAKE_MOVE, "white-token", gameID,
+                ChessMove.fromNotation("d2d4")));
+        assertEquals(List.of(ERROR), white.receive(1));
+        observer.send(new UserGameCommand(UserGameCommand.CommandType.RESIGN, "observer-token", gameID));
+        assertEquals(List.of(ERROR), observer.receive(1));
+
+        black.send(new UserGameCommand(UserGameCommand.CommandType.RESIGN, "black-token", gameID));
+        assertEquals(List.of(NOTIFICATION), black.receive(1));
+        assertEquals(List.of(NOTIFICATION), white.receive(1));
+        assertEquals(List.of(NOTIFICATION), observer.receive(1));
+
+        assertTrue(white.queue.isEmpty() && black.queue.isEmpty() && observer.queue.isEmpty(),
+                "No client should get extra messages.");
+    }
+
+    @Test
+    void deltaSessionsGetMovesInsteadOfBoards() throws Exception {
+        Client white = new Client("?updates=delta");
+        Client black = new Client();
+        Client observer = new Client("?updates=delta");
+
+        white.send(new UserGameCommand(UserGameCommand.CommandType.CONNECT, "white-token", deltaGameID));
+        white.receive(1);
+        black.send(new UserGameCommand(UserGameCommand.CommandType.CONNECT, "black-token", deltaGameID));
+        black.receive(1);
+        white.receive(1);
+        observer.send(new UserGameCommand(UserGameCommand.CommandType.CONNECT, "observer-token", deltaGameID));
+        ChessGame observed = GSON.fromJson(observer.next(), ServerMessage.class).getGame().getChessGame();
+        white.receive(1);
+        black.receive(1);
+
+        white.send(new UserGameCommand(UserGameCommand.CommandType.MAKE_MOVE, "white-token", deltaGameID,
+                ChessMove.fromNotation("e2e4")));
+        assertEquals(List.of(MOVE), white.receive(1));
+        String load = black.next();
+        String delta = observer.next();
+        assertEquals(List.of(NOTIFICATION), black.receive(1));
+        assertEquals(List.of(NOTIFICATION), observer.receive(1));
+
+        ServerMessage move = GSON.fromJson(delta, ServerMessage.class);
+        assertEquals("e2e4", move.getMove());
+        assertEquals(1, move.getSequence());
+        assertEquals("ACTIVE", move.getStatus());
+        assertTrue(delta.length() * 10 < load.length(), delta.length() + " vs " + load.length() + " bytes");
+
+        // A client whose ply count does not line up must not apply the delta
+        ChessGame outOfStep = new ChessGame();
+        outOfStep.makeMove(ChessMove.fromNotation("d2d4"));
+        assertFalse(move.applyTo(outOfStep));
+        assertTrue(move.applyTo(observed));
+        assertEquals(GSON.fromJson(load, ServerMessage.class).getGame().getChessGame().getBoard(),
+                observed.getBoard());
+
+        observer.send(new UserGameCommand(UserGameCommand.CommandType.RESYNC, "observer-token", deltaGameID));
+        assertEquals(List.of(LOAD_GAME), observer.receive(1));
+        assertTrue(white.queue.isEmpty() && black.queue.isEmpty() && observer.queue.isEmpty(),
+                "No client should get extra messages.");
+    }
+
+    @Test
+    void binarySessionsExchangeBinaryFrames() throws Exception {
+        Client binary = new Client("?protocol=binary");
+        binary.session.getBasicRemote().sendBinary(ByteBuffer.wrap(BinaryCodec.encode(
+                new UserGameCommand(UserGameCommand.CommandType.CONNECT, "observer-token", gameID))));
+        ServerMessage load = BinaryCodec.decodeMessage(binary.binaryQueue.poll(5, TimeUnit.SECONDS));
+        assertEquals(LOAD_GAME, load.getServerMessageType());
+        assertEquals(gameID, load.getGame().getGameID());
+
+        binary.session.getBasicRemote().sendBinary(ByteBuffer.wrap(new byte[]{0x7F}));
+        assertEquals(ERROR, BinaryCodec.decodeMessage(binary.binaryQueue.poll(5, TimeUnit.SECONDS))
+                .getServerMessageType());
+        assertTrue(binary.queue.isEmpty(), "A binary session should never get text frames.");
+    }
+
+    private static class Client extends Endpoint {
+        final BlockingQueue<ByteBuffer> binaryQueue = new LinkedBlockingQueue<>();
+        final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+        final Session session;
+
+        Client() throws Exception {
+            this("");
+        }
+
+        Client(String query) throws Exception {
+            session = ContainerProvider.getWebSocketContainer()
+                    .connectToServer(this, URI.create("ws://localhost:" + port + "/ws" + query));
+            session.addMessageHandler(new MessageHandler.Whole<String>() {
+                @Override
+                public void onMessage(String message) {
+                    queue.add(message);
+                }
+            });
+            session.addMessageHandler(new MessageHandler.Whole<ByteBuffer>() {
+                @Override
+                public void onMessage(ByteBuffer frame) {
+                    binaryQueue.add(frame);
+                }
+            });
+        }
+
+        @Override
+        public void onOpen(Session session, EndpointConfig config) {
+        }
+
+        void send(UserGameCommand command) throws Exception {
+            session.getBasicRemote().sendText(GSON.toJson(command));
+        }
+
+        String next() throws InterruptedException {
+            String message = queue.poll(5, TimeUnit.SECONDS);
+            assertNotNull(message, "Timed out waiting for a message");
+            return message;
+        }
+
+        List<ServerMessage.ServerMessageType> receive(int count) throws InterruptedException {
+            List<ServerMessage.ServerMessageType> types = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                types.add(GSON.fromJson(next(), ServerMessage.class).getServerMessageType());
+            }
+            return types;
+        }
+    }
+}
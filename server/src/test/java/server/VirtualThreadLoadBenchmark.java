@@ -0,0 +1,119 @@
+package server;
+
+import dataaccess.DataAccessException;
+import dataaccess.InMemoryAuthDAO;
+import dataaccess.InMemoryGameDAO;
+import dataaccess.InMemoryUserDAO;
+import model.AuthData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fires a burst of concurrent GET /game requests at a server whose auth lookups
+ * stall like a slow database, once on the platform thread pool and once on
+ * virtual threads, and prints the latency percentiles of each.
+ * <pre>
+ * mvn -pl server test -Dtest=VirtualThreadLoadBenchmark -Dchess.bench=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "chess.bench", matches = "true")
+public class VirtualThreadLoadBenchmark {
+
+    private static final int REQUESTS = 1000;
+    private static final long STALL_MS = 500;
+
+    @Test
+    void stalledRequestsOnPlatformVersusVirtualThreads() throws Exception {
+        long[] platform = run(false);
+        long[] virtual = run(true);
+        report("platform", platform);
+        report("virtual", virtual);
+        assertTrue(percentile(virtual, 99) < percentile(platform, 99),
+                "Virtual threads should cut p99 latency under DB stalls.");
+    }
+
+    private static long[] run(boolean virtualThreads) throws Exception {
+        System.setProperty("server.http.virtualThreads", Boolean.toString(virtualThreads));
+        Server server = new Server(new InMemoryUserDAO(), new InMemoryGameDAO(), stallingAuthDAO());
+        int port = server.run(0);
+        try (HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build()) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/game"))
+                    .header("authorization", "bench-token")
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+            // The warm-up leaves one kept-alive connection per request, so the measured
+            // burst times the server rather than TCP connection setup
+            burst(client, request, REQUESTS);
+            return burst(client, request, REQUESTS);
+        } finally {
+            server.stop();
+            System.clearProperty("server.http.virtualThreads");
+        }
+    }
+
+    /**
+     * Sends every request at once and returns the sorted latencies in ms.
+     */
+    private static long[] burst(HttpClient client, HttpRequest request, int requests) {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failures = new AtomicInteger();
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            long start = System.nanoTime();
+            inFlight.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        } else {
+                            latencies.add((System.nanoTime() - start) / 1_000_000);
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+        assertEquals(0, failures.get(), "Every request should succeed.");
+        return latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private static InMemoryAuthDAO stallingAuthDAO() {
+        InMemoryAuthDAO authDAO = new InMemoryAuthDAO() {
+            @Override
+            public AuthData getAuth(String authToken) throws DataAccessException {
+                try {
+                    Thread.sleep(STALL_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getAuth(authToken);
+            }
+        };
+        authDAO.createAuth(new AuthData("bench-token", "bench"));
+        return authDAO;
+    }
+
+    private static void report(String label, long[] sorted) {
+        System.out.printf("%-8s %d requests, %d ms stall: p50=%d ms p90=%d ms p99=%d ms max=%d ms%n",
+                label, sorted.length, STALL_MS, percentile(sorted, 50), percentile(sorted, 90),
+                percentile(sorted, 99), sorted[sorted.length - 1]);
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p / 100.0 * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,123 @@
+package server.handlers;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import com.google.gson.Gson;
+import model.GameData;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.UpgradeRequest;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import websocket.BinaryCodec;
+import websocket.messages.ServerMessage;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Times broadcasting one LOAD_GAME to a game with a growing number of
+ * observers, half on JSON and half on binary frames, serializing per recipient
+ * versus sharing one {@link OutboundFrame}. Sessions are stubs that only count
+ * bytes, so the numbers are the hub's own cost.
+ * <pre>
+ * mvn -pl server test -Dtest=BroadcastFanOutBenchmark -Dchess.bench=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "chess.bench", matches = "true")
+public class BroadcastFanOutBenchmark {
+
+    private static final Gson GSON = new Gson();
+    private static final int[] OBSERVERS = {10, 100, 1000};
+    private static final int ROUNDS = 200;
+
+    private final LongAdder bytesWritten = new LongAdder();
+
+    @Test
+    void sharedFramesVersusPerRecipientSerialization() throws Exception {
+        ChessGame chessGame = new ChessGame();
+        chessGame.makeMove(ChessMove.fromNotation("e2e4"));
+        ServerMessage load = new ServerMessage(ServerMessage.ServerMessageType.LOAD_GAME,
+                new GameData(1, "white", "black", "bench", chessGame));
+
+        for (int observers : OBSERVERS) {
+            GameSessionRegistry registry = new GameSessionRegistry();
+            for (int i = 0; i < observers; i++) {
+                registry.add(new PlayerConnection(stubSession(i % 2 == 0), "token", 1, "observer" + i, "OBSERVER"));
+            }
+
+            // Warm up both paths before timing them
+            perRecipient(registry, load, ROUNDS);
+            shared(registry, load, ROUNDS);
+            long perRecipientNs = perRecipient(registry, load, ROUNDS);
+            long sharedNs = shared(registry, load, ROUNDS);
+
+            System.out.printf("%4d observers: per-recipient %,8d us/broadcast, shared %,6d us/broadcast (%.1fx)%n",
+                    observers, perRecipientNs / ROUNDS / 1000, sharedNs / ROUNDS / 1000,
+                    (double) perRecipientNs / sharedNs);
+            if (observers >= 100) {
+                assertTrue(sharedNs < perRecipientNs, "Sharing one frame should beat serializing per observer.");
+            }
+        }
+        assertTrue(bytesWritten.sum() > 0);
+    }
+
+    private long perRecipient(GameSessionRegistry registry, ServerMessage message, int rounds) {
+        long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            for (PlayerConnection connection : registry.connections(1)) {
+                if (connection.binary) {
+                    connection.session.getRemote().sendBytes(ByteBuffer.wrap(BinaryCodec.encode(message)), null);
+                } else {
+                    connection.session.getRemote().sendString(GSON.toJson(message), null);
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long shared(GameSessionRegistry registry, ServerMessage message, int rounds) {
+        long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            registry.broadcast(1, new OutboundFrame(message), null);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private Session stubSession(boolean binary) {
+        RemoteEndpoint remote = (RemoteEndpoint) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{RemoteEndpoint.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "sendString" -> bytesWritten.add(((String) args[0]).length());
+                        case "sendBytes" -> bytesWritten.add(((ByteBuffer) args[0]).remaining());
+                        default -> {
+                            return null;
+                        }
+                    }
+                    // Complete the write at once, like a client that keeps up
+                    if (args[1] instanceof WriteCallback callback) {
+                        callback.writeSuccess();
+                    }
+                    return null;
+                });
+        Map<String, List<String>> parameters = binary ? Map.of("protocol", List.of("binary")) : Map.of();
+        UpgradeRequest upgrade = (UpgradeRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{UpgradeRequest.class},
+                (proxy, method, args) -> method.getName().equals("getParameterMap") ? parameters : null);
+        return (Session) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "isOpen" -> true;
+                    case "getRemote" -> remote;
+                    case "getUpgradeRequest" -> upgrade;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+}
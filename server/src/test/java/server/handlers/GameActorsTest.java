@@ -0,0 +1,69 @@
+package server.handlers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameActorsTest {
+
+    @Test
+    void tasksForOneGameRunInOrder() throws InterruptedException {
+        try (GameActors actors = new GameActors(60_000)) {
+            List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch done = new CountDownLatch(1000);
+            for (int i = 0; i < 1000; i++) {
+                int n = i;
+                actors.submit(7, () -> {
+                    seen.add(n);
+                    done.countDown();
+                });
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i, seen.get(i));
+            }
+            assertEquals(1000, actors.getProcessedCount());
+        }
+    }
+
+    @Test
+    void gamesRunInParallel() throws InterruptedException {
+        try (GameActors actors = new GameActors(60_000)) {
+            // Game 1 blocks until game 2 has run, which only works if they are not serialized together
+            CountDownLatch secondRan = new CountDownLatch(1);
+            CountDownLatch firstDone = new CountDownLatch(1);
+            actors.submit(1, () -> {
+                try {
+                    if (secondRan.await(5, TimeUnit.SECONDS)) {
+                        firstDone.countDown();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            actors.submit(2, secondRan::countDown);
+            assertTrue(firstDone.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void idleActorsAreEvicted() throws InterruptedException {
+        try (GameActors actors = new GameActors(50)) {
+            CountDownLatch ran = new CountDownLatch(1);
+            actors.submit(3, ran::countDown);
+            assertTrue(ran.await(5, TimeUnit.SECONDS));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (actors.getActorCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(0, actors.getActorCount());
+            assertEquals(1, actors.getEvictedCount());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package server.handlers;
+
+import chess.ChessGame;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import dataaccess.InMemoryAuthDAO;
+import dataaccess.InMemoryGameDAO;
+import dataaccess.InMemoryUserDAO;
+import model.AuthData;
+import model.GameData;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import server.Server;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameHandlerTest {
+
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+    private static Server server;
+    private static int port;
+    private static InMemoryGameDAO gameDAO;
+    private static int gameID;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        InMemoryAuthDAO authDAO = new InMemoryAuthDAO();
+        gameDAO = new InMemoryGameDAO();
+        authDAO.createAuth(new AuthData("token", "alice"));
+        gameID = gameDAO.createGame(new GameData(0, "alice", null, "etag", new ChessGame()));
+        server = new Server(new InMemoryUserDAO(), gameDAO, authDAO);
+        port = server.run(0);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    void getGameAnswers304OnlyWhileTheETagIsCurrent() throws Exception {
+        HttpResponse<String> first = get("/game/" + gameID, null);
+        assertEquals(200, first.statusCode());
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        assertEquals("\"" + gameDAO.getEpoch() + "-" + gameID + "-0\"", etag);
+        assertTrue(first.body().contains("\"chessGame\""), first.body());
+
+        HttpResponse<String> unchanged = get("/game/" + gameID, etag);
+        assertEquals(304, unchanged.statusCode());
+        assertEquals("", unchanged.body());
+        assertEquals(304, get("/game/" + gameID, "W/" + etag).statusCode(),
+                "A weakened tag should still match.");
+        assertEquals(200, get("/game/" + gameID, "\"" + gameDAO.getEpoch() + "-" + gameID + "-7\"").statusCode());
+    }
+
+    @Test
+    void aClearedAndRecreatedGameDoesNotMatchItsOldETag() throws Exception {
+        String etag = get("/game/" + gameID, null).headers().firstValue("ETag").orElseThrow();
+
+        gameDAO.clear();
+        int recreated = gameDAO.createGame(new GameData(0, "alice", null, "etag", new ChessGame()));
+        assertEquals(gameID, recreated, "The cleared store reuses the ID at the same version.");
+
+        HttpResponse<String> response = get("/game/" + gameID, etag);
+        assertEquals(200, response.statusCode(), "A tag from before the clear must not earn a 304.");
+        assertNotEquals(etag, response.headers().firstValue("ETag").orElseThrow());
+    }
+
+    @Test
+    void getGameRejectsUnknownAndMalformedIDs() throws Exception {
+        assertEquals(404, get("/game/999", null).statusCode());
+        assertEquals(400, get("/game/abc", null).statusCode());
+        HttpResponse<String> unauthorized = send(HttpRequest.newBuilder(uri("/game/" + gameID))
+                .header("authorization", "bogus").build());
+        assertEquals(401, unauthorized.statusCode());
+    }
+
+    @Test
+    void listingReturnsSummariesUnlessBoardsAreAskedFor() throws Exception {
+        JsonObject summary = onlyGame(get("/game", null));
+        assertEquals(gameID, summary.get("gameID").getAsInt());
+        assertEquals("etag", summary.get("gameName").getAsString());
+        assertFalse(summary.has("chessGame"), "The default listing should not carry boards.");
+
+        JsonObject full = onlyGame(get("/game?includeBoard=true", null));
+        assertEquals(gameID, full.get("gameID").getAsInt());
+        assertTrue(full.has("chessGame"), "includeBoard=true should return the boards.");
+    }
+
+    private static JsonObject onlyGame(HttpResponse<String> response) {
+        assertEquals(200, response.statusCode());
+        JsonArray games = JsonParser.parseString(response.body()).getAsJsonObject().getAsJsonArray("games");
+        assertEquals(1, games.size());
+        return games.get(0).getAsJsonObject();
+    }
+
+    private static HttpResponse<String> get(String path, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path)).header("authorization", "token");
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return send(request.build());
+    }
+
+    private static HttpResponse<String> send(HttpRequest request) throws Exception {
+        return CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,108 @@
+package server.handlers;
+
+import chess.ChessMove;
+import com.google.gson.Gson;
+import model.GameData;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.jupiter.api.Test;
+import websocket.messages.ServerMessage;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlayerConnectionTest {
+
+    private static final Gson GSON = new Gson();
+
+    private final List<String> sent = new ArrayList<>();
+    private final List<WriteCallback> pending = new ArrayList<>();
+    private final AtomicBoolean open = new AtomicBoolean(true);
+
+    @Test
+    void coalescePolicyCollapsesQueuedStatesIntoTheLatestSnapshot() {
+        Backpressure backpressure = new Backpressure(3, Backpressure.Policy.COALESCE);
+        PlayerConnection connection = new PlayerConnection(stalledSession(), "token", 1, "slow", "OBSERVER",
+                backpressure);
+
+        connection.send(load(0));           // in flight, never completes on its own
+        connection.send(notification("n1"));
+        connection.send(move(1));
+        connection.send(move(2));
+        connection.send(move(3));           // full: the deltas collapse into move 3's snapshot
+        assertEquals(2, connection.getQueueDepth());
+        assertEquals(2, backpressure.getDroppedCount());
+
+        drain();
+        assertEquals(List.of("LOAD_GAME 0", "NOTIFICATION n1", "LOAD_GAME 3"), sent);
+        assertEquals(0, connection.getQueueDepth());
+    }
+
+    @Test
+    void disconnectPolicyClosesSlowSessions() {
+        Backpressure backpressure = new Backpressure(2, Backpressure.Policy.DISCONNECT);
+        PlayerConnection connection = new PlayerConnection(stalledSession(), "token", 1, "slow", "OBSERVER",
+                backpressure);
+
+        for (int i = 0; i < 4; i++) {
+            connection.send(notification("n" + i));
+        }
+        assertFalse(open.get(), "The session should have been closed.");
+        assertEquals(1, backpressure.getDisconnectCount());
+        assertEquals(0, connection.getQueueDepth());
+        assertEquals(2, backpressure.getMaxQueueDepth());
+    }
+
+    private void drain() {
+        while (!pending.isEmpty()) {
+            pending.remove(0).writeSuccess();
+        }
+    }
+
+    private static OutboundFrame load(int version) {
+        GameData game = new GameData(1);
+        game.setVersion(version);
+        return new OutboundFrame(new ServerMessage(ServerMessage.ServerMessageType.LOAD_GAME, game));
+    }
+
+    private static OutboundFrame move(int ply) {
+        return new OutboundFrame(ServerMessage.move(ChessMove.fromNotation("e2e4"), ply, "ACTIVE", ply), load(ply));
+    }
+
+    private static OutboundFrame notification(String text) {
+        return new OutboundFrame(new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION, text));
+    }
+
+    /**
+     * A session whose writes only complete when the test says so.
+     */
+    private Session stalledSession() {
+        RemoteEndpoint remote = (RemoteEndpoint) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{RemoteEndpoint.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("sendString")) {
+                        ServerMessage message = GSON.fromJson((String) args[0], ServerMessage.class);
+                        sent.add(message.getServerMessageType() + " " + (message.getGame() != null
+                                ? message.getGame().getVersion() : message.getMessage()));
+                        pending.add((WriteCallback) args[1]);
+                    }
+                    return null;
+                });
+        return (Session) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "isOpen" -> open.get();
+                    case "getRemote" -> remote;
+                    case "close" -> {
+                        open.set(false);
+                        yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+}
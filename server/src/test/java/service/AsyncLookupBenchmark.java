@@ -0,0 +1,134 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import dataaccess.AuthDAO;
+import dataaccess.DataAccessException;
+import dataaccess.DataAccessFutures;
+import dataaccess.GameDAO;
+import dataaccess.InMemoryAuthDAO;
+import dataaccess.InMemoryGameDAO;
+import model.AuthData;
+import model.GameData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Times joinGame and makeMove against stores whose every lookup stalls like a
+ * database round trip, once with the lookups made one after the other and once
+ * overlapped through the async DAO methods.
+ * <pre>
+ * mvn -pl server test -Dtest=AsyncLookupBenchmark -Dchess.bench=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "chess.bench", matches = "true")
+public class AsyncLookupBenchmark {
+
+    private static final int ROUNDS = 200;
+    private static final long STALL_MS = 2;
+
+    @Test
+    void overlappedLookupsCutJoinAndMoveLatency() throws Exception {
+        try (ExecutorService io = Executors.newVirtualThreadPerTaskExecutor()) {
+            long[][] sequential = run(null);
+            long[][] overlapped = run(io);
+            report("join", "sequential", sequential[0]);
+            report("join", "overlapped", overlapped[0]);
+            report("move", "sequential", sequential[1]);
+            report("move", "overlapped", overlapped[1]);
+            assertTrue(overlapped[0][ROUNDS / 2] < sequential[0][ROUNDS / 2]);
+            assertTrue(overlapped[1][ROUNDS / 2] < sequential[1][ROUNDS / 2]);
+        }
+    }
+
+    /**
+     * @param io where async lookups run, or null to keep them on the calling thread
+     * @return sorted join and move latencies in microseconds
+     */
+    private static long[][] run(ExecutorService io) throws Exception {
+        AuthDAO authDAO = stallingAuthDAO(io);
+        GameDAO gameDAO = stallingGameDAO(io);
+        authDAO.createAuth(new AuthData("white-token", "white"));
+        authDAO.createAuth(new AuthData("black-token", "black"));
+        GameService service = new GameService(gameDAO, authDAO);
+
+        long[] joins = new long[ROUNDS];
+        long[] moves = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            int gameID = service.createGame("white-token", "bench" + i);
+            long start = System.nanoTime();
+            service.joinGame("white-token", "WHITE", gameID);
+            joins[i] = (System.nanoTime() - start) / 1000;
+            service.joinGame("black-token", "BLACK", gameID);
+
+            start = System.nanoTime();
+            service.makeMove("white-token", gameID, ChessMove.fromNotation("e2e4"));
+            moves[i] = (System.nanoTime() - start) / 1000;
+        }
+        Arrays.sort(joins);
+        Arrays.sort(moves);
+        return new long[][]{joins, moves};
+    }
+
+    private static AuthDAO stallingAuthDAO(ExecutorService io) {
+        return new InMemoryAuthDAO() {
+            @Override
+            public AuthData getAuth(String authToken) throws DataAccessException {
+                stall();
+                return super.getAuth(authToken);
+            }
+
+            @Override
+            public CompletableFuture<AuthData> getAuthAsync(String authToken) {
+                return (io == null) ? super.getAuthAsync(authToken) : async(io, () -> getAuth(authToken));
+            }
+        };
+    }
+
+    private static GameDAO stallingGameDAO(ExecutorService io) {
+        return new InMemoryGameDAO() {
+            @Override
+            public GameData getGame(int gameID) throws DataAccessException {
+                stall();
+                return super.getGame(gameID);
+            }
+
+            @Override
+            public CompletableFuture<GameData> getGameAsync(int gameID) {
+                return (io == null) ? super.getGameAsync(gameID) : async(io, () -> getGame(gameID));
+            }
+        };
+    }
+
+    private static <T> CompletableFuture<T> async(ExecutorService io, DataAccessFutures.Call<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        io.execute(() -> {
+            try {
+                future.complete(call.call());
+            } catch (DataAccessException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private static void stall() {
+        try {
+            Thread.sleep(STALL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void report(String op, String label, long[] sorted) {
+        System.out.printf("%s %-10s %d rounds, %d ms per lookup: p50=%d us p99=%d us%n", op, label, sorted.length,
+                STALL_MS, sorted[sorted.length / 2], sorted[(int) (sorted.length * 0.99)]);
+    }
+}
@@ -0,0 +1,89 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import dataaccess.DataAccessException;
+import dataaccess.InMemoryAuthDAO;
+import dataaccess.InMemoryGameDAO;
+import model.AuthData;
+import model.GameData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameServiceTest {
+
+    @Test
+    void racingJoinsGiveEachSeatToExactlyOnePlayer() throws Exception {
+        InMemoryAuthDAO authDAO = new InMemoryAuthDAO();
+        InMemoryGameDAO gameDAO = new InMemoryGameDAO();
+        GameService service = new GameService(gameDAO, authDAO);
+        int players = 16;
+        for (int i = 0; i < players; i++) {
+            authDAO.createAuth(new AuthData("token" + i, "player" + i));
+        }
+
+        for (int round = 0; round < 20; round++) {
+            int gameID = service.createGame("token0", "race" + round);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> joins = new ArrayList<>();
+            try (var executor = Executors.newFixedThreadPool(players)) {
+                for (int i = 0; i < players; i++) {
+                    String token = "token" + i;
+                    joins.add(executor.submit(() -> {
+                        start.await();
+                        try {
+                            service.joinGame(token, "WHITE", gameID);
+                            return true;
+                        } catch (DataAccessException e) {
+                            assertTrue(e.getMessage().contains("already taken")
+                                    || e.getMessage().contains("conflicting update"), e.getMessage());
+                            return false;
+                        }
+                    }));
+                }
+                start.countDown();
+                int winners = 0;
+                for (Future<Boolean> join : joins) {
+                    winners += join.get() ? 1 : 0;
+                }
+                assertEquals(1, winners, "Exactly one player should get the WHITE seat.");
+            }
+            GameData game = gameDAO.getGame(gameID);
+            assertNotNull(game.getWhiteUsername());
+            assertEquals(1, game.getVersion(), "Only the winning join should have been written.");
+        }
+        assertTrue(service.getConflictCount() <= service.getWriteAttemptCount());
+    }
+
+    @Test
+    void bulkCreateReturnsIDsInOrderWithIndependentBoards() throws Exception {
+        InMemoryAuthDAO authDAO = new InMemoryAuthDAO();
+        InMemoryGameDAO gameDAO = new InMemoryGameDAO();
+        GameService service = new GameService(gameDAO, authDAO);
+        authDAO.createAuth(new AuthData("token", "organizer"));
+
+        List<Integer> gameIDs = service.createGames("token", List.of("round1", "round2", "round3"));
+        assertEquals(3, gameIDs.size());
+        for (int i = 0; i < gameIDs.size(); i++) {
+            assertEquals("round" + (i + 1), gameDAO.getGame(gameIDs.get(i)).getGameName());
+        }
+
+        // The games start from one shared board, so a move in one must not show up in another
+        GameData first = gameDAO.getGame(gameIDs.get(0));
+        first.getChessGame().makeMove(ChessMove.fromNotation("e2e4"));
+        gameDAO.updateGame(first);
+        assertEquals(new ChessGame().getBoard(), gameDAO.getGame(gameIDs.get(1)).getChessGame().getBoard());
+
+        assertThrows(DataAccessException.class, () -> service.createGames("token", List.of("a", "a")));
+        assertThrows(DataAccessException.class, () -> service.createGames("token", List.of("b", " ")));
+        assertThrows(DataAccessException.class, () -> service.createGames("bad-token", List.of("c")));
+        assertEquals(3, gameDAO.listGames().size(), "A rejected batch should create nothing.");
+    }
+}
@@ -1,8 +1,11 @@
 package chess;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Manages a chess game, making moves on a board.
@@ -11,6 +14,7 @@ public class ChessGame {
     private ChessBoard board;
     private TeamColor turn;
     private boolean resigned;  // new field to track if a player resigned
+    private int plyCount;      // moves made so far by both sides
 
     public ChessGame() {
         board = new ChessBoard();
@@ -27,6 +31,37 @@ public class ChessGame {
         turn = team;
     }
 
+    /**
+     * @return the number of moves made in this game, counting both sides
+     */
+    public int getPlyCount() {
+        return plyCount;
+    }
+
+    /**
+     * Restores the ply count of a game rebuilt from its board, e.g. by a decoder.
+     */
+    public void setPlyCount(int plyCount) {
+        this.plyCount = plyCount;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the pieces and the side to move. Only depends on the
+     * position, so a client that replays a move can compare it with the server's.
+     */
+    public long positionHash() {
+        long hash = 0xcbf29ce484222325L;
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(new ChessPosition(row, col));
+                int code = (piece == null) ? 0
+                        : 1 + piece.getTeamColor().ordinal() * 6 + piece.getPieceType().ordinal();
+                hash = (hash ^ code) * 0x100000001b3L;
+            }
+        }
+        return (hash ^ turn.ordinal()) * 0x100000001b3L;
+    }
+
     public enum TeamColor {
         WHITE, BLACK
     }
@@ -36,6 +71,15 @@ public class ChessGame {
         if (piece == null) {
             return new HashSet<>();
         }
+        LegalMoveCache cache = LegalMoveCache.shared();
+        if (cache.isEnabled()) {
+            return new HashSet<>(cache.lookup(board, this::analyzePosition).movesFrom(startPosition));
+        }
+        return computeValidMoves(startPosition);
+    }
+
+    private HashSet<ChessMove> computeValidMoves(ChessPosition startPosition) {
+        ChessPiece piece = board.getPiece(startPosition);
         HashSet<ChessMove> valid = new HashSet<>();
         for (ChessMove move : piece.pieceMoves(board, startPosition)) {
             if (isSafeMove(move)) {
@@ -45,6 +89,34 @@ public class ChessGame {
         return valid;
     }
 
+    /**
+     * Computes the legal moves of every piece on the board plus the check flags,
+     * which is what LegalMoveCache stores per position.
+     */
+    private LegalMoveCache.Entry analyzePosition() {
+        List<Set<ChessMove>> movesBySquare = LegalMoveCache.Entry.emptySquares();
+        boolean[] inCheck = new boolean[TeamColor.values().length];
+        boolean[] hasMoves = new boolean[TeamColor.values().length];
+        for (int y = 1; y <= 8; y++) {
+            for (int x = 1; x <= 8; x++) {
+                ChessPosition pos = new ChessPosition(x, y);
+                ChessPiece piece = board.getPiece(pos);
+                if (piece == null) {
+                    continue;
+                }
+                Set<ChessMove> moves = Collections.unmodifiableSet(computeValidMoves(pos));
+                movesBySquare.set(LegalMoveCache.Entry.squareIndex(pos), moves);
+                if (!moves.isEmpty()) {
+                    hasMoves[piece.getTeamColor().ordinal()] = true;
+                }
+            }
+        }
+        for (TeamColor color : TeamColor.values()) {
+            inCheck[color.ordinal()] = isKingAttacked(color);
+        }
+        return new LegalMoveCache.Entry(movesBySquare, inCheck, hasMoves);
+    }
+
     private boolean isSafeMove(ChessMove move) {
         ChessPiece startPiece = board.getPiece(move.getStartPosition());
         ChessPiece endPiece = board.getPiece(move.getEndPosition());
@@ -52,7 +124,7 @@ public class ChessGame {
         board.addPiece(move.getEndPosition(), startPiece);
         board.addPiece(move.getStartPosition(), null);
 
-        boolean safe = !isInCheck(startPiece.getTeamColor());
+        boolean safe = !isKingAttacked(startPiece.getTeamColor());
 
         board.addPiece(move.getStartPosition(), startPiece);
         board.addPiece(move.getEndPosition(), endPiece);
@@ -86,6 +158,7 @@ public class ChessGame {
                 board.addPiece(move.getEndPosition(), piece);
             }
             board.addPiece(move.getStartPosition(), null);
+            plyCount++;
             toggleTurn();
         } else {
             System.err.println("Move rejected. isValid: " + isValid + ", correctTurn: " + correctTurn);
@@ -102,6 +175,14 @@ public class ChessGame {
     }
 
     public boolean isInCheck(TeamColor teamColor) {
+        LegalMoveCache cache = LegalMoveCache.shared();
+        if (cache.isEnabled()) {
+            return cache.lookup(board, this::analyzePosition).inCheck(teamColor);
+        }
+        return isKingAttacked(teamColor);
+    }
+
+    private boolean isKingAttacked(TeamColor teamColor) {
         ChessPosition kingPos = findKing(teamColor);
         if (kingPos == null) {
             return false;
@@ -138,11 +219,15 @@ public class ChessGame {
     }
 
     private boolean hasValidMoves(TeamColor teamColor) {
+        LegalMoveCache cache = LegalMoveCache.shared();
+        if (cache.isEnabled()) {
+            return cache.lookup(board, this::analyzePosition).hasMoves(teamColor);
+        }
         for (int y = 1; y <= 8; y++) {
             for (int x = 1; x <= 8; x++) {
                 ChessPiece piece = board.getPiece(new ChessPosition(x, y));
                 if (piece != null && piece.getTeamColor() == teamColor
-                        && !validMoves(new ChessPosition(x, y)).isEmpty()) {
+                        && !computeValidMoves(new ChessPosition(x, y)).isEmpty()) {
                     return true;
                 }
             }
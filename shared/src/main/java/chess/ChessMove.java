@@ -50,6 +50,56 @@ public class ChessMove {
         return promo;
     }
 
+    /**
+     * @return the move in coordinate notation, e.g. "e2e4", or "e7e8q" for a promotion
+     */
+    public String toNotation() {
+        StringBuilder sb = new StringBuilder(5);
+        sb.append((char) ('a' + start.getColumn() - 1)).append(start.getRow());
+        sb.append((char) ('a' + end.getColumn() - 1)).append(end.getRow());
+        if (promo != null) {
+            sb.append(switch (promo) {
+                case QUEEN -> 'q';
+                case ROOK -> 'r';
+                case BISHOP -> 'b';
+                case KNIGHT -> 'n';
+                case KING -> 'k';
+                case PAWN -> 'p';
+            });
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parses coordinate notation produced by {@link #toNotation()}.
+     *
+     * @return the move, or null if the string is not valid notation
+     */
+    public static ChessMove fromNotation(String notation) {
+        if (notation == null || (notation.length() != 4 && notation.length() != 5)) {
+            return null;
+        }
+        ChessPosition from = ChessPosition.fromString(notation.substring(0, 2));
+        ChessPosition to = ChessPosition.fromString(notation.substring(2, 4));
+        if (from == null || to == null) {
+            return null;
+        }
+        ChessPiece.PieceType promotion = null;
+        if (notation.length() == 5) {
+            promotion = switch (notation.charAt(4)) {
+                case 'q' -> ChessPiece.PieceType.QUEEN;
+                case 'r' -> ChessPiece.PieceType.ROOK;
+                case 'b' -> ChessPiece.PieceType.BISHOP;
+                case 'n' -> ChessPiece.PieceType.KNIGHT;
+                default -> null;
+            };
+            if (promotion == null) {
+                return null;
+            }
+        }
+        return new ChessMove(from, to, promotion);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
@@ -0,0 +1,221 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, thread-safe cache of legal moves keyed by board position.
+ * <p>
+ * One instance is shared by every ChessGame in the JVM, so games (and observers)
+ * sitting in the same position reuse a single analysis. Eviction uses the CLOCK
+ * (second chance) algorithm. Configure with -Dchess.moveCache.size and turn it
+ * off with -Dchess.moveCache.enabled=false or {@link #setEnabled(boolean)}.
+ */
+public final class LegalMoveCache {
+
+    private static final LegalMoveCache SHARED = new LegalMoveCache(
+            Integer.getInteger("chess.moveCache.size", 10_000),
+            Boolean.parseBoolean(System.getProperty("chess.moveCache.enabled", "true")));
+
+    private final ConcurrentHashMap<PositionKey, Entry> entries;
+    private final PositionKey[] clock;
+    private int hand;
+    private volatile boolean enabled;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LegalMoveCache(int capacity, boolean enabled) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.entries = new ConcurrentHashMap<>(capacity * 4 / 3 + 1);
+        this.clock = new PositionKey[capacity];
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the cache used by ChessGame
+     */
+    public static LegalMoveCache shared() {
+        return SHARED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Kill switch. Disabling also drops every cached position.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    /**
+     * Returns the analysis for the board's current position, running the loader on a miss.
+     * The key is taken before the loader runs, so the loader may temporarily mutate the board.
+     */
+    Entry lookup(ChessBoard board, Supplier<Entry> loader) {
+        PositionKey key = PositionKey.of(board);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.referenced = true;
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        entry = loader.get();
+        admit(key, entry);
+        return entry;
+    }
+
+    private void admit(PositionKey key, Entry entry) {
+        synchronized (clock) {
+            if (entries.putIfAbsent(key, entry) != null) {
+                return;
+            }
+            while (true) {
+                PositionKey resident = clock[hand];
+                if (resident != null) {
+                    Entry residentEntry = entries.get(resident);
+                    if (residentEntry != null && residentEntry.referenced) {
+                        // Second chance: clear the bit and move on
+                        residentEntry.referenced = false;
+                        hand = (hand + 1) % clock.length;
+                        continue;
+                    }
+                    entries.remove(resident);
+                    evictions.increment();
+                }
+                clock[hand] = key;
+                hand = (hand + 1) % clock.length;
+                return;
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (clock) {
+            entries.clear();
+            Arrays.fill(clock, null);
+            hand = 0;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int capacity() {
+        return clock.length;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "LegalMoveCache{enabled=" + enabled + ", size=" + size() + "/" + capacity()
+                + ", hits=" + hits() + ", misses=" + misses() + ", evictions=" + evictions() + "}";
+    }
+
+    /**
+     * Precomputed legal moves for every occupied square of one position, plus the
+     * check / has-moves flags used for game status.
+     */
+    static final class Entry {
+        private final List<Set<ChessMove>> movesBySquare;
+        private final boolean[] inCheck;
+        private final boolean[] hasMoves;
+        private volatile boolean referenced;
+
+        Entry(List<Set<ChessMove>> movesBySquare, boolean[] inCheck, boolean[] hasMoves) {
+            this.movesBySquare = movesBySquare;
+            this.inCheck = inCheck;
+            this.hasMoves = hasMoves;
+        }
+
+        Collection<ChessMove> movesFrom(ChessPosition position) {
+            Set<ChessMove> moves = movesBySquare.get(squareIndex(position));
+            return (moves == null) ? List.of() : moves;
+        }
+
+        boolean inCheck(ChessGame.TeamColor color) {
+            return inCheck[color.ordinal()];
+        }
+
+        boolean hasMoves(ChessGame.TeamColor color) {
+            return hasMoves[color.ordinal()];
+        }
+
+        static List<Set<ChessMove>> emptySquares() {
+            List<Set<ChessMove>> squares = new ArrayList<>(64);
+            for (int i = 0; i < 64; i++) {
+                squares.add(null);
+            }
+            return squares;
+        }
+
+        static int squareIndex(ChessPosition position) {
+            return (position.getRow() - 1) * 8 + (position.getColumn() - 1);
+        }
+    }
+
+    /**
+     * Piece placement encoded one byte per square. This tree has no castling or
+     * en passant state, so the placement alone determines the legal moves.
+     */
+    static final class PositionKey {
+        private final byte[] squares;
+        private final int hash;
+
+        private PositionKey(byte[] squares) {
+            this.squares = squares;
+            this.hash = Arrays.hashCode(squares);
+        }
+
+        static PositionKey of(ChessBoard board) {
+            byte[] squares = new byte[64];
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    ChessPiece piece = board.getPiece(new ChessPosition(row, col));
+                    if (piece != null) {
+                        squares[(row - 1) * 8 + (col - 1)] = (byte) (1 + piece.getTeamColor().ordinal() * 6
+                                + piece.getPieceType().ordinal());
+                    }
+                }
+            }
+            return new PositionKey(squares);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PositionKey other && hash == other.hash && Arrays.equals(squares, other.squares);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -11,6 +11,7 @@ public class GameData {
     private String winner;
     private String resignedPlayer;
     private boolean gameOver;
+    private int version;       // bumped on every change; the single-game ETag is derived from it
 
     // Constructor for creating a new GameData with an auto-generated or initial gameID.
     public GameData(int gameID) {
@@ -90,4 +91,19 @@ public class GameData {
     public void setGameOver(boolean gameOver) {
         this.gameOver = gameOver;
     }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    /**
+     * @return true once the game was marked over or the board reached mate, stalemate or resignation
+     */
+    public boolean isFinished() {
+        return gameOver || (chessGame != null && chessGame.isEndGame());
+    }
 }
@@ -0,0 +1,11 @@
+package model;
+
+/**
+ * The metadata shown when listing games, without the board.
+ */
+public record GameSummary(int gameID, String whiteUsername, String blackUsername, String gameName) {
+
+    public static GameSummary of(GameData game) {
+        return new GameSummary(game.getGameID(), game.getWhiteUsername(), game.getBlackUsername(), game.getGameName());
+    }
+}
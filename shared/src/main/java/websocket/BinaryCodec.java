@@ -0,0 +1,288 @@
+package websocket;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import model.GameData;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ServerMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Compact binary frames for the /ws protocol, used instead of JSON by sessions
+ * that connect with {@code ?protocol=binary}.
+ * <p>
+ * Every frame starts with one byte holding the format version in the high
+ * nibble and the command or message type ordinal in the low one. Integers are
+ * unsigned varints, strings are a varint of length + 1 (0 for null) followed by
+ * UTF-8, squares are one byte (row - 1) * 8 + (column - 1), and a board is 32
+ * bytes of one nibble per square.
+ * <pre>
+ * command:      header, gameID + 1, authToken, [start, end, promotion + 1]
+ * LOAD_GAME:    header, gameID, white, black, name, winner, resignedPlayer, version, flags,
+ *               [plyCount, board]
+ * NOTIFICATION: header, message
+ * ERROR:        header, errorMessage
+ * MOVE:         header, start, end, promotion + 1, positionHash (8 bytes), status, sequence
+ * </pre>
+ */
+public final class BinaryCodec {
+
+    static final int VERSION = 1;
+
+    private static final List<String> STATUSES = List.of("ACTIVE", "CHECK", "CHECKMATE", "STALEMATE");
+
+    private static final int GAME_OVER = 1;
+    private static final int HAS_BOARD = 2;
+    private static final int RESIGNED = 4;
+    private static final int BLACK_TO_MOVE = 8;
+
+    private BinaryCodec() {
+    }
+
+    public static byte[] encode(UserGameCommand command) {
+        Writer out = new Writer();
+        out.header(command.getCommandType().ordinal());
+        out.varint(command.getGameID() == null ? 0 : command.getGameID() + 1);
+        out.string(command.getAuthToken());
+        if (command.move() != null) {
+            out.move(command.move());
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the frame is not a valid command
+     */
+    public static UserGameCommand decodeCommand(ByteBuffer frame) {
+        try {
+            UserGameCommand.CommandType type = enumAt(UserGameCommand.CommandType.values(), header(frame));
+            int gameID = readVarint(frame);
+            String authToken = readString(frame);
+            ChessMove move = frame.hasRemaining() ? readMove(frame) : null;
+            return new UserGameCommand(type, authToken, gameID == 0 ? null : gameID - 1, move);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated command frame");
+        }
+    }
+
+    public static byte[] encode(ServerMessage message) {
+        Writer out = new Writer();
+        out.header(message.getServerMessageType().ordinal());
+        switch (message.getServerMessageType()) {
+            case LOAD_GAME -> out.game(message.getGame());
+            case NOTIFICATION -> out.string(message.getMessage());
+            case ERROR -> out.string(message.getErrorMessage());
+            case MOVE -> {
+                out.move(ChessMove.fromNotation(message.getMove()));
+                out.long64(message.getPositionHash());
+                out.write(Math.max(0, STATUSES.indexOf(message.getStatus())));
+                out.varint(message.getSequence());
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the frame is not a valid message
+     */
+    public static ServerMessage decodeMessage(ByteBuffer frame) {
+        try {
+            ServerMessage.ServerMessageType type = enumAt(ServerMessage.ServerMessageType.values(), header(frame));
+            return switch (type) {
+                case LOAD_GAME -> new ServerMessage(type, readGame(frame));
+                case NOTIFICATION, ERROR -> new ServerMessage(type, readString(frame));
+                case MOVE -> {
+                    ChessMove move = readMove(frame);
+                    long hash = frame.getLong();
+                    String status = enumAt(STATUSES.toArray(String[]::new), frame.get() & 0xFF);
+                    yield ServerMessage.move(move, hash, status, readVarint(frame));
+                }
+            };
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated message frame");
+        }
+    }
+
+    private static int header(ByteBuffer frame) {
+        int header = frame.get() & 0xFF;
+        if ((header >>> 4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported frame version " + (header >>> 4));
+        }
+        return header & 0x0F;
+    }
+
+    private static <T> T enumAt(T[] values, int ordinal) {
+        if (ordinal >= values.length) {
+            throw new IllegalArgumentException("Unknown type " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    private static int readVarint(ByteBuffer frame) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = frame.get() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+
+    private static String readString(ByteBuffer frame) {
+        int length = readVarint(frame);
+        if (length == 0) {
+            return null;
+        }
+        if (length < 0) {
+            throw new IllegalArgumentException("Bad string length " + length);
+        }
+        if (length - 1 > frame.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] utf8 = new byte[length - 1];
+        frame.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static ChessPosition readSquare(ByteBuffer frame) {
+        int square = frame.get() & 0xFF;
+        if (square >= 64) {
+            throw new IllegalArgumentException("Bad square " + square);
+        }
+        return new ChessPosition(square / 8 + 1, square % 8 + 1);
+    }
+
+    private static ChessMove readMove(ByteBuffer frame) {
+        ChessPosition start = readSquare(frame);
+        ChessPosition end = readSquare(frame);
+        int promotion = frame.get() & 0xFF;
+        return new ChessMove(start, end,
+                promotion == 0 ? null : enumAt(ChessPiece.PieceType.values(), promotion - 1));
+    }
+
+    private static GameData readGame(ByteBuffer frame) {
+        GameData game = new GameData(readVarint(frame));
+        game.setWhiteUsername(readString(frame));
+        game.setBlackUsername(readString(frame));
+        game.setGameName(readString(frame));
+        game.setWinner(readString(frame));
+        game.setResignedPlayer(readString(frame));
+        game.setVersion(readVarint(frame));
+        int flags = frame.get();
+        game.setGameOver((flags & GAME_OVER) != 0);
+        if ((flags & HAS_BOARD) != 0) {
+            ChessGame chessGame = new ChessGame();
+            chessGame.setPlyCount(readVarint(frame));
+            ChessBoard board = new ChessBoard();
+            for (int square = 0; square < 64; square += 2) {
+                int packed = frame.get() & 0xFF;
+                board.addPiece(new ChessPosition(square / 8 + 1, square % 8 + 1), readPiece(packed >>> 4));
+                board.addPiece(new ChessPosition(square / 8 + 1, square % 8 + 2), readPiece(packed & 0x0F));
+            }
+            chessGame.setBoard(board);
+            chessGame.setTeamTurn((flags & BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+            if ((flags & RESIGNED) != 0) {
+                chessGame.setResigned();
+            }
+            game.setChessGame(chessGame);
+        }
+        return game;
+    }
+
+    private static ChessPiece readPiece(int code) {
+        if (code == 0) {
+            return null;
+        }
+        int types = ChessPiece.PieceType.values().length;
+        return new ChessPiece(enumAt(ChessGame.TeamColor.values(), (code - 1) / types),
+                enumAt(ChessPiece.PieceType.values(), (code - 1) % types));
+    }
+
+    private static int pieceCode(ChessPiece piece) {
+        return (piece == null) ? 0
+                : 1 + piece.getTeamColor().ordinal() * ChessPiece.PieceType.values().length
+                + piece.getPieceType().ordinal();
+    }
+
+    private static final class Writer extends ByteArrayOutputStream {
+
+        Writer() {
+            super(64);
+        }
+
+        void header(int ordinal) {
+            write((VERSION << 4) | ordinal);
+        }
+
+        void varint(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        void long64(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (value >>> shift));
+            }
+        }
+
+        void string(String value) {
+            if (value == null) {
+                varint(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length + 1);
+            write(utf8, 0, utf8.length);
+        }
+
+        void square(ChessPosition position) {
+            write((position.getRow() - 1) * 8 + position.getColumn() - 1);
+        }
+
+        void move(ChessMove move) {
+            square(move.getStartPosition());
+            square(move.getEndPosition());
+            write(move.getPromotionPiece() == null ? 0 : move.getPromotionPiece().ordinal() + 1);
+        }
+
+        void game(GameData game) {
+            varint(game.getGameID());
+            string(game.getWhiteUsername());
+            string(game.getBlackUsername());
+            string(game.getGameName());
+            string(game.getWinner());
+            string(game.getResignedPlayer());
+            varint(game.getVersion());
+            ChessGame chessGame = game.getChessGame();
+            int flags = game.isGameOver() ? GAME_OVER : 0;
+            if (chessGame != null) {
+                flags |= HAS_BOARD;
+                flags |= chessGame.isResigned() ? RESIGNED : 0;
+                flags |= chessGame.getTeamTurn() == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0;
+            }
+            write(flags);
+            if (chessGame != null) {
+                varint(chessGame.getPlyCount());
+                ChessBoard board = chessGame.getBoard();
+                for (int square = 0; square < 64; square += 2) {
+                    int high = pieceCode(board.getPiece(new ChessPosition(square / 8 + 1, square % 8 + 1)));
+                    int low = pieceCode(board.getPiece(new ChessPosition(square / 8 + 1, square % 8 + 2)));
+                    write((high << 4) | low);
+                }
+            }
+        }
+    }
+}
@@ -18,7 +18,9 @@ public class UserGameCommand {
         CONNECT,
         MAKE_MOVE,
         LEAVE,
-        RESIGN
+        RESIGN,
+        /** Asks for a fresh LOAD_GAME after a MOVE delta could not be applied. */
+        RESYNC
     }
 
     public UserGameCommand() {
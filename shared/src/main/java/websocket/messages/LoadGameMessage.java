@@ -9,8 +9,7 @@ import model.GameData;
 public class LoadGameMessage extends ServerMessage {
 
     public LoadGameMessage(GameData updatedGame) {
-        // Pass null for recipient; your send logic can fill this later from sessionUserMap.
-        super(ServerMessageType.LOAD_GAME, updatedGame, null);
+        super(ServerMessageType.LOAD_GAME, updatedGame);
     }
 
     // For GSON
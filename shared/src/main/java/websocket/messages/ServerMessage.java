@@ -1,5 +1,7 @@
 package websocket.messages;
 
+import chess.ChessGame;
+import chess.ChessMove;
 import model.GameData;
 import com.google.gson.annotations.SerializedName;
 import java.util.Objects;
@@ -14,12 +16,18 @@ public class ServerMessage {
 
     private GameData game;
 
-    private String recipient;
+    // MOVE only: the move in long algebraic notation and the position it leads to
+    private String move;
+    private Long positionHash;
+    private String status;
+    private Integer sequence;
 
     public enum ServerMessageType {
         LOAD_GAME,
         ERROR,
-        NOTIFICATION
+        NOTIFICATION,
+        /** One move applied on top of the last LOAD_GAME, sent instead of LOAD_GAME to delta sessions. */
+        MOVE
     }
 
     public ServerMessage() {}
@@ -37,20 +45,51 @@ public class ServerMessage {
         }
     }
 
-    public ServerMessage(ServerMessageType type, GameData game, String recipient) {
+    /**
+     * The same message goes to every session in a game, so it carries nothing
+     * recipient-specific and can be serialized once per broadcast.
+     */
+    public ServerMessage(ServerMessageType type, GameData game) {
         this.serverMessageType = type;
         this.game = game;
-        this.recipient = recipient;
     }
 
-    public ServerMessage(ServerMessageType type, String msg, String recipient) {
-        this.serverMessageType = type;
-        if (type == ServerMessageType.ERROR) {
-            this.errorMessage = msg;
-        } else {
-            this.message = msg;
+    /**
+     * A MOVE delta. sequence is the game's ply count after the move, so a client
+     * holding ply n expects sequence n + 1 next; status is ACTIVE, CHECK,
+     * CHECKMATE or STALEMATE for the side now to move.
+     */
+    public static ServerMessage move(ChessMove move, long positionHash, String status, int sequence) {
+        ServerMessage message = new ServerMessage(ServerMessageType.MOVE);
+        message.move = move.toNotation();
+        message.positionHash = positionHash;
+        message.status = status;
+        message.sequence = sequence;
+        return message;
+    }
+
+    /**
+     * Replays a MOVE delta on the client's copy of the game.
+     *
+     * @return false if the delta skips a sequence number, is illegal here, or
+     * leaves a different position than the server's; the client should then
+     * send RESYNC and wait for a fresh LOAD_GAME
+     */
+    public boolean applyTo(ChessGame game) {
+        if (serverMessageType != ServerMessageType.MOVE || game == null || sequence == null
+                || sequence != game.getPlyCount() + 1) {
+            return false;
+        }
+        ChessMove parsed = ChessMove.fromNotation(move);
+        if (parsed == null) {
+            return false;
         }
-        this.recipient = recipient;
+        try {
+            game.makeMove(parsed);
+        } catch (Exception e) {
+            return false;
+        }
+        return positionHash != null && positionHash == game.positionHash();
     }
 
     public ServerMessageType getServerMessageType() {
@@ -69,12 +108,20 @@ public class ServerMessage {
         return game;
     }
 
-    public String getRecipient() {
-        return recipient;
+    public String getMove() {
+        return move;
+    }
+
+    public Long getPositionHash() {
+        return positionHash;
+    }
+
+    public String getStatus() {
+        return status;
     }
 
-    public void setRecipient(String recipient) {
-        this.recipient = recipient;
+    public Integer getSequence() {
+        return sequence;
     }
 
     @Override
@@ -82,11 +129,12 @@ public class ServerMessage {
         if (this == o){return true;}
         if (!(o instanceof ServerMessage that)){return false;}
         return serverMessageType == that.serverMessageType &&
-                Objects.equals(recipient, that.recipient);
+                Objects.equals(message, that.message) &&
+                Objects.equals(errorMessage, that.errorMessage);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(serverMessageType, recipient);
+        return Objects.hash(serverMessageType, message, errorMessage);
     }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChessMoveNotationTest {
+
+    @Test
+    void notationRoundTrips() {
+        ChessMove opening = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 2), ChessPiece.PieceType.KNIGHT);
+
+        assertEquals("e2e4", opening.toNotation());
+        assertEquals("a7b8n", promotion.toNotation());
+        assertEquals(opening, ChessMove.fromNotation("e2e4"));
+        assertEquals(promotion, ChessMove.fromNotation("a7b8n"));
+    }
+
+    @Test
+    void invalidNotationIsRejected() {
+        assertNull(ChessMove.fromNotation(null));
+        assertNull(ChessMove.fromNotation("e2"));
+        assertNull(ChessMove.fromNotation("e2e9"));
+        assertNull(ChessMove.fromNotation("e7e8x"));
+    }
+
+    @Test
+    void plyCountTracksMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertEquals(0, game.getPlyCount());
+        game.makeMove(ChessMove.fromNotation("e2e4"));
+        game.makeMove(ChessMove.fromNotation("e7e5"));
+        assertEquals(2, game.getPlyCount());
+    }
+}
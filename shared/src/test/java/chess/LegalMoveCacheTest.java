@@ -0,0 +1,85 @@
+package chess;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LegalMoveCacheTest {
+
+    @AfterEach
+    void restoreSharedCache() {
+        LegalMoveCache.shared().setEnabled(true);
+    }
+
+    @Test
+    void samePositionInDifferentGamesHitsCache() {
+        LegalMoveCache cache = LegalMoveCache.shared();
+        cache.clear();
+        long missesBefore = cache.misses();
+        long hitsBefore = cache.hits();
+
+        ChessPosition e2 = new ChessPosition(2, 5);
+        new ChessGame().validMoves(e2);
+        new ChessGame().validMoves(e2);
+
+        assertEquals(1, cache.misses() - missesBefore, "Only the first game should compute the position.");
+        assertEquals(1, cache.hits() - hitsBefore, "The second game should reuse the cached position.");
+    }
+
+    @Test
+    void cachedResultsMatchUncachedResults() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(6, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+
+        LegalMoveCache.shared().setEnabled(true);
+        boolean cachedMate = game.isInCheckmate(ChessGame.TeamColor.WHITE);
+        var cachedMoves = game.validMoves(new ChessPosition(1, 5));
+
+        LegalMoveCache.shared().setEnabled(false);
+        assertEquals(game.isInCheckmate(ChessGame.TeamColor.WHITE), cachedMate);
+        assertEquals(game.validMoves(new ChessPosition(1, 5)), cachedMoves);
+        assertTrue(cachedMate, "Fool's mate should be checkmate.");
+    }
+
+    @Test
+    void clockEvictionKeepsCacheBounded() {
+        LegalMoveCache cache = new LegalMoveCache(2, true);
+        List<ChessBoard> boards = List.of(boardWithKingAt(1), boardWithKingAt(2), boardWithKingAt(3));
+        for (ChessBoard board : boards) {
+            cache.lookup(board, () -> emptyEntry());
+        }
+
+        assertEquals(2, cache.size(), "Cache must not grow past its capacity.");
+        assertEquals(1, cache.evictions());
+    }
+
+    @Test
+    void returnedMovesAreIndependentCopies() {
+        ChessGame game = new ChessGame();
+        ChessPosition b1 = new ChessPosition(1, 2);
+        var moves = game.validMoves(b1);
+        moves.clear();
+
+        assertEquals(Set.of(
+                new ChessMove(b1, new ChessPosition(3, 1), null),
+                new ChessMove(b1, new ChessPosition(3, 3), null)), game.validMoves(b1));
+    }
+
+    private static ChessBoard boardWithKingAt(int column) {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, column),
+                new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        return board;
+    }
+
+    private static LegalMoveCache.Entry emptyEntry() {
+        return new LegalMoveCache.Entry(LegalMoveCache.Entry.emptySquares(), new boolean[2], new boolean[2]);
+    }
+}
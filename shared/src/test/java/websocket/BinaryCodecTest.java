@@ -0,0 +1,82 @@
+package websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
+import model.GameData;
+import org.junit.jupiter.api.Test;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ServerMessage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryCodecTest {
+
+    private static final Gson GSON = new Gson();
+
+    @Test
+    void commandsRoundTrip() {
+        UserGameCommand move = new UserGameCommand(UserGameCommand.CommandType.MAKE_MOVE, "token", 42,
+                ChessMove.fromNotation("e7e8q"));
+        UserGameCommand decoded = BinaryCodec.decodeCommand(ByteBuffer.wrap(BinaryCodec.encode(move)));
+        assertEquals(move, decoded);
+        assertEquals(move.move(), decoded.move());
+
+        UserGameCommand leave = new UserGameCommand(UserGameCommand.CommandType.LEAVE, "token", 7);
+        assertNull(BinaryCodec.decodeCommand(ByteBuffer.wrap(BinaryCodec.encode(leave))).move());
+    }
+
+    @Test
+    void loadGameRoundTripsAndIsTenTimesSmaller() throws InvalidMoveException {
+        ChessGame chessGame = new ChessGame();
+        chessGame.makeMove(ChessMove.fromNotation("e2e4"));
+        chessGame.makeMove(ChessMove.fromNotation("e7e5"));
+        GameData game = new GameData(12, "white", null, "opening", chessGame);
+        game.setVersion(5);
+        ServerMessage load = new ServerMessage(ServerMessage.ServerMessageType.LOAD_GAME, game);
+
+        byte[] frame = BinaryCodec.encode(load);
+        GameData decoded = BinaryCodec.decodeMessage(ByteBuffer.wrap(frame)).getGame();
+        assertEquals(12, decoded.getGameID());
+        assertEquals("white", decoded.getWhiteUsername());
+        assertNull(decoded.getBlackUsername());
+        assertEquals(5, decoded.getVersion());
+        assertEquals(chessGame, decoded.getChessGame());
+        assertEquals(2, decoded.getChessGame().getPlyCount());
+
+        int json = GSON.toJson(load).getBytes(StandardCharsets.UTF_8).length;
+        assertTrue(frame.length * 10 <= json, frame.length + " vs " + json + " bytes");
+    }
+
+    @Test
+    void moveAndTextMessagesRoundTrip() {
+        ServerMessage move = ServerMessage.move(ChessMove.fromNotation("g1f3"), -123456789L, "CHECK", 300);
+        ServerMessage decoded = BinaryCodec.decodeMessage(ByteBuffer.wrap(BinaryCodec.encode(move)));
+        assertEquals("g1f3", decoded.getMove());
+        assertEquals(-123456789L, decoded.getPositionHash());
+        assertEquals("CHECK", decoded.getStatus());
+        assertEquals(300, decoded.getSequence());
+
+        ServerMessage error = new ServerMessage(ServerMessage.ServerMessageType.ERROR, "Error: it is not your turn");
+        assertEquals("Error: it is not your turn",
+                BinaryCodec.decodeMessage(ByteBuffer.wrap(BinaryCodec.encode(error))).getErrorMessage());
+    }
+
+    @Test
+    void malformedFramesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decodeCommand(ByteBuffer.wrap(new byte[0])));
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryCodec.decodeCommand(ByteBuffer.wrap(new byte[]{0x10, 0x05, 0x7F})));
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryCodec.decodeMessage(ByteBuffer.wrap(new byte[]{0x20})));
+        // Auth token lengths that decode negative (-5 here) or run past the end of the frame
+        assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decodeCommand(ByteBuffer.wrap(
+                new byte[]{0x10, 0x02, (byte) 0xFB, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F})));
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryCodec.decodeCommand(ByteBuffer.wrap(new byte[]{0x10, 0x02, 0x7F, 0x61, 0x62})));
+    }
+}